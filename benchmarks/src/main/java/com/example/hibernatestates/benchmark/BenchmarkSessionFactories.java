@@ -0,0 +1,80 @@
+package com.example.hibernatestates.benchmark;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.entity.Project;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import java.util.Map;
+
+final class BenchmarkSessionFactories {
+    private BenchmarkSessionFactories() {
+    }
+
+    // Bootstraps Hibernate without Spring, using the same entity mappings and JDBC settings as application.properties
+    static SessionFactory create(String databaseName, Map<String, String> overrides) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Employee.class)
+                .addAnnotatedClass(Contact.class)
+                .addAnnotatedClass(Project.class)
+                .setProperty(AvailableSettings.URL, "jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.USER, "sa")
+                .setProperty(AvailableSettings.PASS, "password")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.ORDER_UPDATES, "true")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        // Same column names as the Spring Boot application, e.g. phone_number
+        configuration.setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy());
+        overrides.forEach(configuration::setProperty);
+        return configuration.buildSessionFactory();
+    }
+
+    static SessionFactory create(String databaseName) {
+        return create(databaseName, Map.of());
+    }
+
+    static void seedEmployees(SessionFactory sessionFactory, int count, int contactsPerEmployee) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < count; i++) {
+                session.persist(newEmployee("Seed employee " + i, contactsPerEmployee));
+                if ((i + 1) % 50 == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    static void seedProjects(SessionFactory sessionFactory, int count) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < count; i++) {
+                Project project = new Project();
+                project.setName("Seed project " + i);
+                project.setCompleted(i % 2 == 0);
+                session.persist(project);
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    static Employee newEmployee(String name, int contactsPerEmployee) {
+        Employee employee = new Employee();
+        employee.setName(name);
+        for (int i = 0; i < contactsPerEmployee; i++) {
+            Contact contact = new Contact();
+            contact.setPhoneNumber(name + " phone " + i);
+            employee.getContacts().add(contact);
+            contact.setEmployee(employee);
+        }
+        return employee;
+    }
+}
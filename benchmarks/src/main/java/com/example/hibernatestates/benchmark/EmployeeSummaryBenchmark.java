@@ -0,0 +1,73 @@
+package com.example.hibernatestates.benchmark;
+
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import com.example.hibernatestates.service.EmployeeService;
+import com.example.hibernatestates.service.EmployeeSummary;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building employee summaries from entities with the {@code EmployeeSummary} projection.
+ * <p>
+ * Run it with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, the bytes allocated per summary list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSummaryBenchmark {
+    @Param({"1000"})
+    int employees;
+
+    @Param({"5"})
+    int contactsPerEmployee;
+
+    private final EmployeeService employeeService = new EmployeeService();
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = BenchmarkSessionFactories.create("summary");
+        BenchmarkSessionFactories.seedEmployees(sessionFactory, employees, contactsPerEmployee);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> entities() {
+        try (Session session = sessionFactory.openSession()) {
+            return employeeService.getEmployees(EmployeeFetchPlan.EMPLOYEE_WITH_CONTACTS, session).stream()
+                    .map(employee -> new EmployeeSummary(employee.getId(), employee.getName(),
+                            employee.getContacts().size()))
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> projection() {
+        try (Session session = sessionFactory.openSession()) {
+            return employeeService.getEmployeeSummaries(session);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.hibernatestates.benchmark;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.entity.Project;
+import com.example.hibernatestates.service.ContactService;
+import com.example.hibernatestates.service.EmployeeService;
+import com.example.hibernatestates.service.ProjectService;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every state transition performed by the services, including the flush that writes it.
+ * <p>
+ * {@code contextSize} employees (with their contacts) are loaded into the persistence context before each
+ * invocation, so flush and dirty-checking cost grows with it. Every invocation runs in its own transaction
+ * that is rolled back afterwards, which keeps the seeded data identical across invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityStateTransitionBenchmark {
+    private static final int SEEDED_PROJECTS = 100;
+
+    @Param({"0", "1000", "10000"})
+    int contextSize;
+
+    @Param({"0", "5", "20"})
+    int contactsPerEmployee;
+
+    private final EmployeeService employeeService = new EmployeeService();
+    private final ContactService contactService = new ContactService();
+    private final ProjectService projectService = new ProjectService();
+
+    private SessionFactory sessionFactory;
+    private int detachedEmployeeId;
+    private int removableContactId;
+
+    private Session session;
+    private Employee detachedEmployee;
+    private Contact removableContact;
+    private Project removableProject;
+
+    @Setup(Level.Trial)
+    public void setUpDatabase() {
+        sessionFactory = BenchmarkSessionFactories.create("transitions");
+        BenchmarkSessionFactories.seedEmployees(sessionFactory, contextSize, contactsPerEmployee);
+        BenchmarkSessionFactories.seedProjects(sessionFactory, SEEDED_PROJECTS);
+
+        // An employee outside the loaded range acts as the Detached instance to merge, and owns the contact to remove
+        try (Session setupSession = sessionFactory.openSession()) {
+            setupSession.beginTransaction();
+            Employee employee = BenchmarkSessionFactories.newEmployee("Detached employee", Math.max(1, contactsPerEmployee));
+            setupSession.persist(employee);
+            setupSession.getTransaction().commit();
+            detachedEmployeeId = employee.getId();
+            removableContactId = employee.getContacts().get(0).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownDatabase() {
+        sessionFactory.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void openSession() {
+        session = sessionFactory.openSession();
+        session.beginTransaction();
+        if (contextSize > 0) {
+            List<Employee> employees = session.createQuery(
+                            "select distinct e from Employee e left join fetch e.contacts where e.id <> :id", Employee.class)
+                    .setParameter("id", detachedEmployeeId)
+                    .setMaxResults(contextSize)
+                    .getResultList();
+            employees.size();
+        }
+        detachedEmployee = new Employee();
+        detachedEmployee.setId(detachedEmployeeId);
+        detachedEmployee.setName("Merged employee");
+        removableContact = session.find(Contact.class, removableContactId);
+        removableProject = session.find(Project.class, 1);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeSession() {
+        session.getTransaction().rollback();
+        session.close();
+    }
+
+    @Benchmark
+    public Employee persistEmployee() {
+        Employee employee = BenchmarkSessionFactories.newEmployee("Persisted employee", contactsPerEmployee);
+        employeeService.persistEmployee(employee, session);
+        session.flush();
+        return employee;
+    }
+
+    @Benchmark
+    public Project saveProject() {
+        Project project = new Project();
+        project.setName("Saved project");
+        projectService.saveProject(project, session);
+        session.flush();
+        return project;
+    }
+
+    @Benchmark
+    public Employee mergeDetachedEmployee() {
+        employeeService.updateEmployee(detachedEmployee, session);
+        session.flush();
+        return detachedEmployee;
+    }
+
+    @Benchmark
+    public Contact removeContact() {
+        contactService.deleteContact(removableContact, session);
+        session.flush();
+        return removableContact;
+    }
+
+    @Benchmark
+    public Project removeProject() {
+        projectService.deleteProject(removableProject, session);
+        session.flush();
+        return removableProject;
+    }
+
+    @Benchmark
+    public Project findHit() {
+        return projectService.getProjectById(SEEDED_PROJECTS / 2, session);
+    }
+
+    @Benchmark
+    public Object findMiss() {
+        try {
+            return projectService.getProjectById(-1, session);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.hibernatestates.benchmark;
+
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.entity.Project;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures flush cost with a large number of managed entities.
+ * <p>
+ * Run it once against the default build, whose entities are bytecode enhanced for dirty tracking, and once
+ * after installing the main project with {@code -DskipEnhancement}. The setup prints which variant is loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlushCostBenchmark {
+    @Param({"10000"})
+    int managedEntities;
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private List<Project> projects;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.out.println("Entity bytecode enhancement: "
+                + (SelfDirtinessTracker.class.isAssignableFrom(Project.class) ? "enabled" : "disabled"));
+        sessionFactory = BenchmarkSessionFactories.create("flush");
+        BenchmarkSessionFactories.seedProjects(sessionFactory, managedEntities / 2);
+        BenchmarkSessionFactories.seedEmployees(sessionFactory, managedEntities / 4, 1);
+
+        // Keep every entity managed for the whole trial, the transaction is rolled back at the end
+        session = sessionFactory.openSession();
+        session.beginTransaction();
+        projects = session.createQuery("from Project", Project.class).getResultList();
+        session.createQuery("select distinct e from Employee e left join fetch e.contacts", Employee.class)
+                .getResultList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.getTransaction().rollback();
+        session.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void flushUnchanged() {
+        session.flush();
+    }
+
+    @Benchmark
+    public void flushOneChange() {
+        Project project = projects.get(counter++ % projects.size());
+        project.setCompleted(!project.isCompleted());
+        session.flush();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.hibernatestates.benchmark;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.service.ContactService;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves phone numbers to contacts among a million rows, each operation in a new session.
+ * <p>
+ * {@code naturalId} goes through {@code ContactService.findByPhoneNumber}, with {@code secondLevelCache=true}
+ * repeated numbers are served by the natural-id and entity caches. {@code scan} uses a predicate that cannot use
+ * the index, which is how every lookup ran before phone numbers became a natural id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NaturalIdLookupBenchmark {
+    @Param({"1000000"})
+    int contacts;
+
+    // Numbers looked up repeatedly, like the callers that ring most often
+    @Param({"10000"})
+    int hotNumbers;
+
+    @Param({"false", "true"})
+    boolean secondLevelCache;
+
+    private final ContactService contactService = new ContactService();
+    private SessionFactory sessionFactory;
+    private String[] numbers;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = BenchmarkSessionFactories.create("naturalid", secondLevelCache
+                ? Map.of(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true",
+                        AvailableSettings.CACHE_REGION_FACTORY, "jcache",
+                        "hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+                        "hibernate.javax.cache.missing_cache_strategy", "create")
+                : Map.of());
+
+        // Ten contacts per employee, inserted with set-based SQL as persisting a million entities takes minutes
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("insert into employees (name, version) "
+                            + "select 'Seed employee ' || x, 0 from system_range(1, :employees)")
+                    .setParameter("employees", contacts / 10)
+                    .executeUpdate();
+            session.createNativeMutationQuery("insert into contact (phone_number, employee_id, version) "
+                            + "select '+1555' || lpad(x, 7, '0'), (x - 1) / 10 + 1, 0 from system_range(1, :contacts)")
+                    .setParameter("contacts", contacts)
+                    .executeUpdate();
+            session.getTransaction().commit();
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        numbers = new String[hotNumbers];
+        for (int i = 0; i < hotNumbers; i++) {
+            numbers[i] = String.format("+1 555 %07d", random.nextInt(1, contacts + 1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Contact naturalId() {
+        try (Session session = sessionFactory.openSession()) {
+            return contactService.findByPhoneNumber(nextNumber(), session).orElseThrow();
+        }
+    }
+
+    @Benchmark
+    public Contact scan() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("from Contact c where upper(c.phoneNumber) = :phoneNumber", Contact.class)
+                    .setParameter("phoneNumber", ContactService.normalizePhoneNumber(nextNumber()))
+                    .getSingleResult();
+        }
+    }
+
+    private String nextNumber() {
+        return numbers[counter++ % numbers.length];
+    }
+}
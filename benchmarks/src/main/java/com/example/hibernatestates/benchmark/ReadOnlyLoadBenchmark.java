@@ -0,0 +1,86 @@
+package com.example.hibernatestates.benchmark;
+
+import com.example.hibernatestates.entity.Project;
+import com.example.hibernatestates.service.ProjectService;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares regular and read-only lookups of a large read set.
+ * <p>
+ * {@code loadAndFlush} covers the whole read path, run it with {@code -prof gc} to see the allocation saved by
+ * not keeping loaded-state snapshots. {@code flush} measures dirty checking of the loaded set on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyLoadBenchmark {
+    @Param({"10000"})
+    int rows;
+
+    @Param({"false", "true"})
+    boolean readOnly;
+
+    private final ProjectService projectService = new ProjectService();
+    private SessionFactory sessionFactory;
+    private Session session;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = BenchmarkSessionFactories.create("readonly");
+        BenchmarkSessionFactories.seedProjects(sessionFactory, rows * 2);
+
+        // Keep one completed-projects read set loaded for the flush benchmark
+        session = sessionFactory.openSession();
+        session.beginTransaction();
+        load(session);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.getTransaction().rollback();
+        session.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<Project> loadAndFlush() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            List<Project> projects = load(session);
+            session.flush();
+            session.getTransaction().rollback();
+            return projects;
+        }
+    }
+
+    @Benchmark
+    public void flush() {
+        session.flush();
+    }
+
+    private List<Project> load(Session session) {
+        return readOnly
+                ? projectService.getProjectsByCompletedReadOnly(true, session)
+                : projectService.getProjectsByCompleted(true, session);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.hibernatestates.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Measures time to the first persist of a freshly started application, for each startup variant.
+ * <p>
+ * JMH cannot fork a whole Spring Boot application per measurement, so this is a plain main class that starts the
+ * application as a child process with {@code startup.probe.enabled=true} and reads the time it reports. Build the
+ * main project with {@code mvn -Paot,cds package -DskipTests} first, then run from the repository root:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.hibernatestates.benchmark.StartupTimeBenchmark [runs]
+ * </pre>
+ */
+public class StartupTimeBenchmark {
+    private static final String RESULT_PREFIX = "time-to-first-persist-ms=";
+    private static final String MAIN_CLASS = "com.example.hibernatestates.HibernateStatesApplication";
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path target = Path.of("target");
+        Path archive = target.resolve("cds/app.jsa");
+        String classpath = classpath(target);
+
+        System.out.println("variant,runs,median_ms,min_ms,max_ms");
+        measure("ddl-auto", runs, classpath, List.of(), List.of());
+        measure("fast-startup", runs, classpath, List.of(), List.of("--spring.profiles.active=fast-startup"));
+        measure("fast-startup+aot", runs, classpath, List.of("-Dspring.aot.enabled=true"),
+                List.of("--spring.profiles.active=fast-startup"));
+        if (Files.exists(archive)) {
+            measure("fast-startup+aot+cds", runs, classpath,
+                    List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive),
+                    List.of("--spring.profiles.active=fast-startup"));
+        }
+    }
+
+    private static void measure(String variant, int runs, String classpath, List<String> jvmArgs,
+                                List<String> applicationArgs) throws IOException, InterruptedException {
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmArgs);
+            command.addAll(List.of("-cp", classpath, MAIN_CLASS, "--startup.probe.enabled=true", "--server.port=0"));
+            command.addAll(applicationArgs);
+            times[i] = run(variant, command);
+        }
+        Arrays.sort(times);
+        System.out.printf("%s,%d,%d,%d,%d%n", variant, runs, times[runs / 2], times[0], times[runs - 1]);
+    }
+
+    private static long run(String variant, List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Long result = null;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                int start = line.indexOf(RESULT_PREFIX);
+                if (start >= 0) {
+                    result = Long.parseLong(line.substring(start + RESULT_PREFIX.length()).trim());
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (result == null) {
+            throw new IllegalStateException(variant + " did not report a first persist, exit code " + exitCode);
+        }
+        return result;
+    }
+
+    // The plain jar and its dependencies as copied by the cds profile, CDS needs the same classpath as when recording
+    private static String classpath(Path target) throws IOException {
+        Path lib = target.resolve("cds/lib");
+        if (!Files.isDirectory(lib)) {
+            throw new IllegalStateException(lib + " not found, build the main project with -Paot,cds first");
+        }
+        try (Stream<Path> jars = Files.list(target)) {
+            Path jar = jars.filter(path -> path.toString().endsWith("-SNAPSHOT.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Plain application jar not found in " + target));
+            return jar + System.getProperty("path.separator") + lib + "/*";
+        }
+    }
+}
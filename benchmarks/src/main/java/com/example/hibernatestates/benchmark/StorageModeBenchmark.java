@@ -0,0 +1,188 @@
+package com.example.hibernatestates.benchmark;
+
+import com.example.hibernatestates.entity.Employee;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Compares the in-memory database with the file-backed {@code durable} profile: insert and update throughput on
+ * {@code employees} employees with {@code contactsPerEmployee} contacts each, then the time to close, and the time
+ * to reopen and count the rows that survived.
+ * <p>
+ * The durable database is restarted twice: after a clean close, which writes and compacts the file, and after a
+ * simulated crash ({@code SHUTDOWN IMMEDIATELY}), which makes H2 recover from the last stored chunk. Restarts are
+ * separate Hibernate bootstraps rather than separate JVMs, JMH cannot time a single cold start of this kind, so this
+ * is a plain main class. Run from the repository root:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.hibernatestates.benchmark.StorageModeBenchmark [employees] [contactsPerEmployee]
+ * </pre>
+ */
+public class StorageModeBenchmark {
+    private static final String DURABLE_PROFILE = "/application-durable.properties";
+    private static final Path DIRECTORY = Path.of("target", "storage-benchmark");
+    private static final int BATCH_SIZE = 50;
+
+    public static void main(String[] args) throws Exception {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int contactsPerEmployee = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String durableUrl = durableUrl(DIRECTORY.toAbsolutePath().resolve("hibernate-states"));
+
+        // Unreported runs of both modes warm up the JIT, otherwise whichever run comes first looks slowest
+        measure("in-memory", "clean", "jdbc:h2:mem:warm-up", employees, contactsPerEmployee, false);
+        measure("durable", "clean", durableUrl, employees, contactsPerEmployee, false);
+
+        System.out.println("mode,restart,rows,insert_rows_per_s,update_rows_per_s,close_ms,reopen_ms,count_ms,rows_after_restart,file_mb");
+        measure("in-memory", "clean", "jdbc:h2:mem:storage", employees, contactsPerEmployee, true);
+        measure("durable", "clean", durableUrl, employees, contactsPerEmployee, true);
+        measure("durable", "crash", durableUrl, employees, contactsPerEmployee, true);
+    }
+
+    private static void measure(String mode, String restart, String url, int employees, int contactsPerEmployee,
+                                boolean report) throws IOException {
+        deleteDirectory();
+        long rows = (long) employees * (1 + contactsPerEmployee);
+
+        SessionFactory sessionFactory = open(url, "create");
+        long start = System.nanoTime();
+        insert(sessionFactory, employees, contactsPerEmployee);
+        double insertRate = rows / seconds(start);
+        start = System.nanoTime();
+        long updated = update(sessionFactory);
+        double updateRate = updated / seconds(start);
+
+        start = System.nanoTime();
+        if (restart.equals("crash")) {
+            execute(sessionFactory, "SHUTDOWN IMMEDIATELY");
+        } else if (url.startsWith("jdbc:h2:mem:")) {
+            // What a process exit does to an in-memory database
+            execute(sessionFactory, "SHUTDOWN");
+        }
+        sessionFactory.close();
+        long closeMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        long survived;
+        long reopenMillis;
+        long countMillis;
+        try (SessionFactory reopened = open(url, "update")) {
+            reopenMillis = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            try (Session session = reopened.openSession()) {
+                survived = session.createQuery("select count(e) from Employee e", Long.class).getSingleResult()
+                        + session.createQuery("select count(c) from Contact c", Long.class).getSingleResult();
+            }
+            countMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+
+        if (!report) {
+            return;
+        }
+        System.out.printf("%s,%s,%d,%.0f,%.0f,%d,%d,%d,%d,%.1f%n", mode, restart, rows, insertRate,
+                updateRate, closeMillis, reopenMillis, countMillis, survived, fileSize() / 1_048_576.0);
+    }
+
+    private static void insert(SessionFactory sessionFactory, int employees, int contactsPerEmployee) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < employees; i++) {
+                session.persist(BenchmarkSessionFactories.newEmployee("Stored employee " + i, contactsPerEmployee));
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+                // Commits in slices, so the durable mode pays for commits as an application would
+                if ((i + 1) % (BATCH_SIZE * 20) == 0) {
+                    session.getTransaction().commit();
+                    session.beginTransaction();
+                }
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    // Renames every employee through dirty checking, one flush per batch
+    private static long update(SessionFactory sessionFactory) {
+        long updated = 0;
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try (ScrollableResults<Employee> employees = session.createQuery("from Employee e order by e.id",
+                            Employee.class)
+                    .setFetchSize(BATCH_SIZE)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (employees.next()) {
+                    Employee employee = employees.get();
+                    employee.setName(employee.getName() + " updated");
+                    if (++updated % BATCH_SIZE == 0) {
+                        session.flush();
+                        session.clear();
+                    }
+                }
+            }
+            session.getTransaction().commit();
+        }
+        return updated;
+    }
+
+    private static SessionFactory open(String url, String schemaAction) {
+        return BenchmarkSessionFactories.create("storage", Map.of(
+                AvailableSettings.URL, url,
+                AvailableSettings.HBM2DDL_AUTO, schemaAction));
+    }
+
+    private static void execute(SessionFactory sessionFactory, String sql) {
+        try (Session session = sessionFactory.openSession()) {
+            session.doWork(connection -> connection.createStatement().execute(sql));
+        }
+    }
+
+    // The URL of the durable profile, with the storage path placeholder pointing into the benchmark directory
+    private static String durableUrl(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = StorageModeBenchmark.class.getResourceAsStream(DURABLE_PROFILE)) {
+            if (input == null) {
+                throw new IllegalStateException(DURABLE_PROFILE + " not found, install the main project first");
+            }
+            properties.load(input);
+        }
+        return properties.getProperty("spring.datasource.url")
+                .replaceFirst("\\$\\{storage\\.path:[^}]*}", path.toString().replace("\\", "/"));
+    }
+
+    private static long fileSize() throws IOException {
+        if (!Files.isDirectory(DIRECTORY)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(DIRECTORY)) {
+            return files.mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private static void deleteDirectory() throws IOException {
+        if (!Files.exists(DIRECTORY)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(DIRECTORY)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
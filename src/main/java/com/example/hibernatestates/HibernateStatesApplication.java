@@ -1,13 +1,18 @@
 package com.example.hibernatestates;
 
+import com.example.hibernatestates.startup.StartupProbe;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class HibernateStatesApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(HibernateStatesApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(HibernateStatesApplication.class, args);
+		if (context.getBean(StartupProbe.class).isEnabled()) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -0,0 +1,42 @@
+package com.example.hibernatestates.async;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.service.ContactService;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class AsyncContactService {
+    private final ContactService contactService;
+    private final SessionTaskExecutor executor;
+
+    public AsyncContactService(ContactService contactService, SessionTaskExecutor executor) {
+        this.contactService = contactService;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Contact> persistContact(Contact contact) {
+        return executor.submit(session -> {
+            contactService.persistContact(contact, session);
+            return contact;
+        });
+    }
+
+    public CompletableFuture<Void> persistContacts(Collection<Contact> contacts) {
+        return executor.execute(session -> contactService.persistContacts(contacts, session));
+    }
+
+    public CompletableFuture<Void> updateContact(Contact contact) {
+        return executor.execute(session -> contactService.updateContact(contact, session));
+    }
+
+    public CompletableFuture<Void> updateContactVersioned(Contact contact) {
+        return executor.execute(session -> contactService.updateContactVersioned(contact, session));
+    }
+
+    public CompletableFuture<Void> deleteContactVersioned(Contact contact) {
+        return executor.execute(session -> contactService.deleteContactVersioned(contact, session));
+    }
+}
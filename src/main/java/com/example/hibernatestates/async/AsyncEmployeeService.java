@@ -0,0 +1,53 @@
+package com.example.hibernatestates.async;
+
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import com.example.hibernatestates.service.EmployeeService;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Returned entities are Detached, associations outside the fetch plan cannot be initialized afterwards
+@Service
+public class AsyncEmployeeService {
+    private final EmployeeService employeeService;
+    private final SessionTaskExecutor executor;
+
+    public AsyncEmployeeService(EmployeeService employeeService, SessionTaskExecutor executor) {
+        this.employeeService = employeeService;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Employee> persistEmployee(Employee employee) {
+        return executor.submit(session -> {
+            employeeService.persistEmployee(employee, session);
+            return employee;
+        });
+    }
+
+    public CompletableFuture<Void> persistEmployees(Collection<Employee> employees) {
+        return executor.execute(session -> employeeService.persistEmployees(employees, session));
+    }
+
+    public CompletableFuture<Void> updateEmployee(Employee employee) {
+        return executor.execute(session -> employeeService.updateEmployee(employee, session));
+    }
+
+    public CompletableFuture<Void> updateEmployeeVersioned(Employee employee) {
+        return executor.execute(session -> employeeService.updateEmployeeVersioned(employee, session));
+    }
+
+    public CompletableFuture<Void> deleteEmployeeVersioned(Employee employee) {
+        return executor.execute(session -> employeeService.deleteEmployeeVersioned(employee, session));
+    }
+
+    public CompletableFuture<Employee> getEmployeeById(int id, EmployeeFetchPlan fetchPlan) {
+        return executor.submit(session -> employeeService.getEmployeeByIdReadOnly(id, fetchPlan, session));
+    }
+
+    public CompletableFuture<List<Employee>> getEmployees(EmployeeFetchPlan fetchPlan) {
+        return executor.submit(session -> employeeService.getEmployeesReadOnly(fetchPlan, session));
+    }
+}
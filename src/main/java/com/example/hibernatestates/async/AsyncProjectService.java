@@ -0,0 +1,55 @@
+package com.example.hibernatestates.async;
+
+import com.example.hibernatestates.entity.Project;
+import com.example.hibernatestates.service.ProjectService;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class AsyncProjectService {
+    private final ProjectService projectService;
+    private final SessionTaskExecutor executor;
+
+    public AsyncProjectService(ProjectService projectService, SessionTaskExecutor executor) {
+        this.projectService = projectService;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Project> persistProject(Project project) {
+        return executor.submit(session -> {
+            projectService.persistProject(project, session);
+            return project;
+        });
+    }
+
+    public CompletableFuture<Void> persistProjects(Collection<Project> projects) {
+        return executor.execute(session -> projectService.persistProjects(projects, session));
+    }
+
+    // Buffered updates are written by the buffer's own transaction, so they need no session task
+    public CompletableFuture<Void> updateProject(Project project) {
+        if (projectService.isWriteBehindEnabled()) {
+            return projectService.updateProject(project);
+        }
+        return executor.execute(session -> projectService.updateProject(project, session));
+    }
+
+    public CompletableFuture<Void> updateProjectVersioned(Project project) {
+        return executor.execute(session -> projectService.updateProjectVersioned(project, session));
+    }
+
+    public CompletableFuture<Void> deleteProjectVersioned(Project project) {
+        return executor.execute(session -> projectService.deleteProjectVersioned(project, session));
+    }
+
+    public CompletableFuture<Project> getProjectById(Integer id) {
+        return executor.submit(session -> projectService.getProjectByIdReadOnly(id, session));
+    }
+
+    public CompletableFuture<List<Project>> getProjectsByCompleted(boolean completed) {
+        return executor.submit(session -> projectService.getProjectsByCompletedReadOnly(completed, session));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.hibernatestates.async;
+
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Runs every unit of work with its own Session and transaction. The number of workers matches the connection
+// pool, so waiting tasks queue up here instead of holding a thread while they wait for a connection. Once
+// queue capacity tasks are waiting, further ones are rejected through a failed future instead of piling up
+@Component
+public class SessionTaskExecutor {
+    private final SessionFactory sessionFactory;
+    private final ExecutorService executor;
+    private final int concurrency;
+
+    public SessionTaskExecutor(SessionFactory sessionFactory,
+                               @Value("${spring.datasource.hikari.maximum-pool-size:10}") int concurrency,
+                               @Value("${session-task.queue-capacity:10000}") int queueCapacity) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive, got " + concurrency);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive, got " + queueCapacity);
+        }
+        this.sessionFactory = sessionFactory;
+        this.concurrency = concurrency;
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new SessionTaskThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public <T> CompletableFuture<T> submit(Function<Session, T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> inTransaction(work), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<Void> execute(Consumer<Session> work) {
+        return submit(session -> {
+            work.accept(session);
+            return null;
+        });
+    }
+
+    // Shares the workers, and so the connection bound, with the session tasks. For work that streams rows
+    // through a StatelessSession and holds its connection until the last one is read
+    public CompletableFuture<Void> executeStateless(Consumer<StatelessSession> work) {
+        try {
+            return CompletableFuture.runAsync(() -> inStatelessTransaction(work), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> T inTransaction(Function<Session, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = work.apply(session);
+                transaction.commit();
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void inStatelessTransaction(Consumer<StatelessSession> work) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                work.accept(session);
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static final class SessionTaskThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "session-task-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
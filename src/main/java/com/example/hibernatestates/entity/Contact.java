@@ -1,21 +1,35 @@
 package com.example.hibernatestates.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "contact")
+@NaturalIdCache(region = "contact-natural-id")
 public class Contact {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
+    // Unique and indexed, ContactService and EmployeeService store it normalized so lookups match however the
+    // number was formatted
+    @NaturalId(mutable = true)
     private String phoneNumber;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "employee_id", nullable = false)
     private Employee employee;
+    @Version
+    private int version;
 
     public int getId() {
         return id;
@@ -41,6 +55,14 @@ public class Contact {
         this.employee = employee;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Contact{" +
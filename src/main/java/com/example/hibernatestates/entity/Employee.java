@@ -6,15 +6,28 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "employees")
+@NamedEntityGraph(name = Employee.GRAPH_EMPLOYEE_ONLY)
+@NamedEntityGraph(name = Employee.GRAPH_WITH_CONTACTS, attributeNodes = @NamedAttributeNode("contacts"))
+@BatchSize(size = 50)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee")
 public class Employee {
+    public static final String GRAPH_EMPLOYEE_ONLY = "employee-only";
+    public static final String GRAPH_WITH_CONTACTS = "employee-with-contacts";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
@@ -22,7 +35,11 @@ public class Employee {
     private String name;
 
     @OneToMany(mappedBy = "employee", cascade = CascadeType.PERSIST)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee-contacts")
     private List<Contact> contacts = new ArrayList<>();
+    @Version
+    private int version;
 
     public int getId() {
         return id;
@@ -48,6 +65,14 @@ public class Employee {
         this.contacts = contacts;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Employee{" +
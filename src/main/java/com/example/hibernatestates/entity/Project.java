@@ -5,10 +5,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = @Index(name = "idx_projects_completed_id", columnList = "completed, id"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "project")
 public class Project {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,6 +22,8 @@ public class Project {
     private String name;
     @Column(name = "completed")
     private boolean isCompleted;
+    @Version
+    private int version;
 
     public int getId() {
         return id;
@@ -41,4 +48,12 @@ public class Project {
     public void setCompleted(boolean completed) {
         isCompleted = completed;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,5 @@
+package com.example.hibernatestates.events;
+
+// Identifies the committed row change, consumers load whatever state they need themselves
+public record EntityChangeEvent(EntityChangeType type, Class<?> entityType, int id, int version) {
+}
@@ -0,0 +1,70 @@
+package com.example.hibernatestates.events;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.entity.Project;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Set;
+
+// Registered for the post-commit events, so changes of rolled back transactions are never published.
+// Bulk HQL statements do not go through entity events and are not published either
+class EntityChangeListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+    private static final Set<Class<?>> PUBLISHED_TYPES = Set.of(Employee.class, Contact.class, Project.class);
+
+    private final EntityChangePublisher publisher;
+
+    EntityChangeListener(EntityChangePublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    // Without consumers Hibernate does not even queue the after-commit callbacks, so the flush and commit
+    // paths stay as they were
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return publisher.hasConsumers() && PUBLISHED_TYPES.contains(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(EntityChangeType.INSERT, event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(EntityChangeType.UPDATE, event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(EntityChangeType.DELETE, event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void publish(EntityChangeType type, EntityPersister persister, Object id, Object entity) {
+        if (!publisher.hasConsumers()) {
+            return;
+        }
+        Object version = persister.getVersion(entity);
+        publisher.publish(new EntityChangeEvent(type, persister.getMappedClass(), (Integer) id,
+                version == null ? 0 : (Integer) version));
+    }
+}
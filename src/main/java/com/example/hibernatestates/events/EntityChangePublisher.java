@@ -0,0 +1,118 @@
+package com.example.hibernatestates.events;
+
+import jakarta.annotation.PreDestroy;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Streams committed inserts, updates and deletes of the entities to subscribers. Events pass through a bounded
+// ring buffer and are delivered on a single dispatcher thread, when the buffer is full new events are dropped
+// and counted rather than slowing down the committing transaction
+@Component
+public class EntityChangePublisher {
+    private static final Logger log = LoggerFactory.getLogger(EntityChangePublisher.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final EntityChangeRingBuffer buffer;
+    private final List<Consumer<EntityChangeEvent>> consumers = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean hasConsumers;
+    private volatile boolean running = true;
+    private Thread dispatcher;
+
+    public EntityChangePublisher(SessionFactory sessionFactory, @Value("${events.buffer-size:8192}") int bufferSize) {
+        this.buffer = new EntityChangeRingBuffer(Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1);
+        EntityChangeListener listener = new EntityChangeListener(this);
+        EventListenerRegistry registry = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    public int getBufferCapacity() {
+        return buffer.capacity();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Consumers run on the dispatcher thread, a slow consumer delays the others and eventually drops events
+    public synchronized AutoCloseable subscribe(Consumer<EntityChangeEvent> consumer) {
+        consumers.add(consumer);
+        hasConsumers = true;
+        if (dispatcher == null) {
+            dispatcher = new Thread(this::dispatch, "entity-change-dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        } else {
+            LockSupport.unpark(dispatcher);
+        }
+        return () -> unsubscribe(consumer);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = dispatcher;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    boolean hasConsumers() {
+        return hasConsumers;
+    }
+
+    void publish(EntityChangeEvent event) {
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private synchronized void unsubscribe(Consumer<EntityChangeEvent> consumer) {
+        consumers.remove(consumer);
+        hasConsumers = !consumers.isEmpty();
+    }
+
+    // Producers never signal the dispatcher, it parks briefly whenever the buffer is empty. Without consumers
+    // nothing is published, so it parks until subscribe or close unparks it instead of waking up every millisecond
+    private void dispatch() {
+        while (running) {
+            EntityChangeEvent event = buffer.poll();
+            if (event == null) {
+                if (hasConsumers) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                } else {
+                    LockSupport.park(this);
+                }
+                continue;
+            }
+            for (Consumer<EntityChangeEvent> consumer : consumers) {
+                try {
+                    consumer.accept(event);
+                } catch (RuntimeException e) {
+                    log.warn("Entity change consumer failed on {}", event, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.hibernatestates.events;
+
+public enum EntityChangeType {
+    INSERT,
+    UPDATE,
+    DELETE
+}
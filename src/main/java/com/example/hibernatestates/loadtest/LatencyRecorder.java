@@ -0,0 +1,30 @@
+package com.example.hibernatestates.loadtest;
+
+import java.util.Arrays;
+
+// Per-worker latency samples, kept raw so the report has exact percentiles. Not thread-safe, each worker owns one
+final class LatencyRecorder {
+    private final long[][] samples = new long[LoadOperation.values().length][1024];
+    private final int[] counts = new int[LoadOperation.values().length];
+    private final long[] errors = new long[LoadOperation.values().length];
+
+    void record(LoadOperation operation, long nanos) {
+        int index = operation.ordinal();
+        if (counts[index] == samples[index].length) {
+            samples[index] = Arrays.copyOf(samples[index], samples[index].length * 2);
+        }
+        samples[index][counts[index]++] = nanos;
+    }
+
+    void recordError(LoadOperation operation) {
+        errors[operation.ordinal()]++;
+    }
+
+    long[] samples(LoadOperation operation) {
+        return Arrays.copyOf(samples[operation.ordinal()], counts[operation.ordinal()]);
+    }
+
+    long errors(LoadOperation operation) {
+        return errors[operation.ordinal()];
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.hibernatestates.loadtest;
+
+public enum LoadOperation {
+    CREATE,
+    UPDATE,
+    LOOKUP,
+    DELETE
+}
@@ -0,0 +1,18 @@
+package com.example.hibernatestates.loadtest;
+
+import java.util.Map;
+
+// Written as JSON so reports of different releases can be diffed or compared by scripts
+public record LoadTestReport(int threads, double durationSeconds, Map<LoadOperation, Integer> mix,
+                             long operations, double throughputPerSecond,
+                             Map<LoadOperation, OperationStatistics> byOperation, PoolStatistics connectionPool) {
+
+    public record OperationStatistics(long count, long errors, double throughputPerSecond, double meanMicros,
+                                      long p50Micros, long p90Micros, long p99Micros, long p999Micros,
+                                      long maxMicros) {
+    }
+
+    public record PoolStatistics(int maximumPoolSize, long acquisitions, double acquireMeanMicros,
+                                 double acquireTotalMillis, double acquireMaxMicros, double timeouts) {
+    }
+}
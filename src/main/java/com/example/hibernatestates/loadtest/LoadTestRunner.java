@@ -0,0 +1,338 @@
+package com.example.hibernatestates.loadtest;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.entity.Project;
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import com.example.hibernatestates.service.EmployeeService;
+import com.example.hibernatestates.service.ProjectService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+// Drives a mixed workload through the services of the running application and writes a JSON report, then exits.
+// Every operation is one session and transaction, like a request would be:
+//   CREATE  persists an employee with load.contacts-per-employee contacts
+//   UPDATE  loads one of load.projects seeded projects and flips its completed flag, threads contend on the same rows
+//          and optimistic lock failures are reported as errors
+//   LOOKUP  loads one of the last load.lookup-window created employees with its contacts
+//   DELETE  removes the oldest created employee with its contacts, once it has left the lookup window
+@Component
+@Profile("load")
+public class LoadTestRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private final SessionFactory sessionFactory;
+    private final EmployeeService employeeService;
+    private final ProjectService projectService;
+    private final MeterRegistry meterRegistry;
+    private final DataSource dataSource;
+    private final ConfigurableApplicationContext context;
+    private final ObjectMapper objectMapper;
+
+    @Value("${load.threads:16}")
+    private int threads;
+    @Value("${load.warmup:5s}")
+    private Duration warmup;
+    @Value("${load.duration:30s}")
+    private Duration duration;
+    @Value("${load.mix.create:30}")
+    private int createWeight;
+    @Value("${load.mix.update:30}")
+    private int updateWeight;
+    @Value("${load.mix.lookup:30}")
+    private int lookupWeight;
+    @Value("${load.mix.delete:10}")
+    private int deleteWeight;
+    @Value("${load.contacts-per-employee:3}")
+    private int contactsPerEmployee;
+    @Value("${load.lookup-window:1000}")
+    private int lookupWindow;
+    @Value("${load.projects:100}")
+    private int projects;
+    @Value("${load.output:target/load-report.json}")
+    private Path output;
+    @Value("${load.exit:true}")
+    private boolean exit;
+
+    private final List<Integer> projectIds = new ArrayList<>();
+    private final AtomicInteger createdCount = new AtomicInteger();
+    private final AtomicInteger liveCount = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Integer> liveEmployees = new ConcurrentLinkedQueue<>();
+    private AtomicReferenceArray<Integer> recentEmployees;
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    public LoadTestRunner(SessionFactory sessionFactory, EmployeeService employeeService, ProjectService projectService,
+                          MeterRegistry meterRegistry, DataSource dataSource, ConfigurableApplicationContext context,
+                          ObjectMapper objectMapper) {
+        this.sessionFactory = sessionFactory;
+        this.employeeService = employeeService;
+        this.projectService = projectService;
+        this.meterRegistry = meterRegistry;
+        this.dataSource = dataSource;
+        this.context = context;
+        this.objectMapper = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        LoadTestReport report = runLoad();
+        String json = objectMapper.writeValueAsString(report);
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(output, json);
+        log.info("Load test report written to {}", output.toAbsolutePath());
+        if (exit) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    LoadTestReport runLoad() throws InterruptedException {
+        int[] weights = {createWeight, updateWeight, lookupWeight, deleteWeight};
+        int totalWeight = Arrays.stream(weights).sum();
+        if (threads <= 0 || totalWeight <= 0 || projects <= 0 || lookupWindow <= 0) {
+            throw new IllegalArgumentException(
+                    "load.threads, load.projects, load.lookup-window and the load.mix weights must be positive");
+        }
+        recentEmployees = new AtomicReferenceArray<>(lookupWindow);
+        seedProjects();
+
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        CountDownLatch finished = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            int worker = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    work(worker, weights, totalWeight, recorder);
+                } finally {
+                    finished.countDown();
+                }
+            }, "load-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        TimeUnit.MILLISECONDS.sleep(warmup.toMillis());
+        PoolSnapshot poolBefore = poolSnapshot();
+        measuring = true;
+        long start = System.nanoTime();
+        TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+        measuring = false;
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        PoolSnapshot poolAfter = poolSnapshot();
+        stopped = true;
+        finished.await();
+
+        return report(recorders, weights, elapsedSeconds, poolBefore, poolAfter);
+    }
+
+    private void work(int worker, int[] weights, int totalWeight, LatencyRecorder recorder) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long sequence = 0;
+        while (!stopped) {
+            LoadOperation operation = pick(random.nextInt(totalWeight), weights);
+            String key = worker + "_" + sequence++;
+            long begin = System.nanoTime();
+            try {
+                boolean executed = switch (operation) {
+                    case CREATE -> inTransaction(session -> create(key, session));
+                    case UPDATE -> inTransaction(session -> update(random, session));
+                    case LOOKUP -> lookup(random);
+                    case DELETE -> delete();
+                };
+                // Lookups and deletes with no employee to work on yet did nothing and are not counted
+                if (executed && measuring) {
+                    recorder.record(operation, System.nanoTime() - begin);
+                }
+            } catch (RuntimeException e) {
+                log.debug("{} failed", operation, e);
+                if (measuring) {
+                    recorder.recordError(operation);
+                }
+            }
+        }
+    }
+
+    private boolean create(String key, Session session) {
+        Employee employee = new Employee();
+        employee.setName("Load employee " + key);
+        for (int i = 0; i < contactsPerEmployee; i++) {
+            Contact contact = new Contact();
+            // Phone numbers are normalized by dropping dashes, so the parts are joined with underscores
+            contact.setPhoneNumber("load_" + key + "_" + i);
+            employee.getContacts().add(contact);
+            contact.setEmployee(employee);
+        }
+        employeeService.persistEmployee(employee, session);
+        session.flush();
+        recentEmployees.set(Math.floorMod(createdCount.getAndIncrement(), lookupWindow), employee.getId());
+        liveEmployees.add(employee.getId());
+        liveCount.incrementAndGet();
+        return true;
+    }
+
+    private boolean update(ThreadLocalRandom random, Session session) {
+        Project project = projectService.getProjectById(projectIds.get(random.nextInt(projectIds.size())), session);
+        project.setCompleted(!project.isCompleted());
+        return true;
+    }
+
+    // The employee is picked before a session is opened, so there is no empty transaction when there is none yet
+    private boolean lookup(ThreadLocalRandom random) {
+        int created = createdCount.get();
+        Integer id = created == 0 ? null : recentEmployees.get(random.nextInt(Math.min(created, lookupWindow)));
+        if (id == null) {
+            return false;
+        }
+        return inTransaction(session -> {
+            employeeService.getEmployeeByIdReadOnly(id, EmployeeFetchPlan.EMPLOYEE_WITH_CONTACTS, session);
+            return true;
+        });
+    }
+
+    // Deletes only employees older than the lookup window, so lookups do not race with deletes of their employee
+    private boolean delete() {
+        Integer id = liveCount.get() > lookupWindow ? liveEmployees.poll() : null;
+        if (id == null) {
+            return false;
+        }
+        liveCount.decrementAndGet();
+        return inTransaction(session -> {
+            employeeService.deleteEmployeesWithContacts(List.of(id), session);
+            return true;
+        });
+    }
+
+    private boolean inTransaction(Predicate<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                boolean executed = work.test(session);
+                transaction.commit();
+                return executed;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void seedProjects() {
+        inTransaction(session -> {
+            for (int i = 0; i < projects; i++) {
+                Project project = new Project();
+                project.setName("Load project " + i);
+                projectService.persistProject(project, session);
+                projectIds.add(project.getId());
+            }
+            return true;
+        });
+    }
+
+    private static LoadOperation pick(int roll, int[] weights) {
+        for (LoadOperation operation : LoadOperation.values()) {
+            roll -= weights[operation.ordinal()];
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Roll outside the total weight");
+    }
+
+    private LoadTestReport report(List<LatencyRecorder> recorders, int[] weights, double elapsedSeconds,
+                                  PoolSnapshot before, PoolSnapshot after) {
+        Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+        Map<LoadOperation, LoadTestReport.OperationStatistics> byOperation = new EnumMap<>(LoadOperation.class);
+        long operations = 0;
+        for (LoadOperation operation : LoadOperation.values()) {
+            mix.put(operation, weights[operation.ordinal()]);
+            long[] samples = recorders.stream()
+                    .map(recorder -> recorder.samples(operation))
+                    .flatMapToLong(Arrays::stream)
+                    .sorted()
+                    .toArray();
+            long errors = recorders.stream().mapToLong(recorder -> recorder.errors(operation)).sum();
+            operations += samples.length;
+            byOperation.put(operation, new LoadTestReport.OperationStatistics(samples.length, errors,
+                    samples.length / elapsedSeconds, Arrays.stream(samples).average().orElse(0) / 1_000,
+                    percentile(samples, 0.5), percentile(samples, 0.9), percentile(samples, 0.99),
+                    percentile(samples, 0.999), samples.length == 0 ? 0 : samples[samples.length - 1] / 1_000));
+        }
+        long acquisitions = after.acquisitions() - before.acquisitions();
+        double acquireNanos = after.acquireTotalNanos() - before.acquireTotalNanos();
+        LoadTestReport.PoolStatistics pool = new LoadTestReport.PoolStatistics(
+                maximumPoolSize(),
+                acquisitions, acquisitions == 0 ? 0 : acquireNanos / acquisitions / 1_000, acquireNanos / 1e6,
+                after.acquireMaxNanos() / 1_000, after.timeouts() - before.timeouts());
+        return new LoadTestReport(threads, elapsedSeconds, mix, operations, operations / elapsedSeconds,
+                byOperation, pool);
+    }
+
+    // The data source may be wrapped, e.g. by the SQL log
+    private int maximumPoolSize() {
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        return hikari == null ? 0 : hikari.getMaximumPoolSize();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000;
+    }
+
+    // Hikari publishes its acquire timer through Micrometer, the report uses the difference over the measured window
+    private PoolSnapshot poolSnapshot() {
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").counter();
+        return new PoolSnapshot(acquire == null ? 0 : acquire.count(),
+                acquire == null ? 0 : acquire.totalTime(TimeUnit.NANOSECONDS),
+                acquire == null ? 0 : acquire.max(TimeUnit.NANOSECONDS),
+                timeouts == null ? 0 : timeouts.count());
+    }
+
+    private record PoolSnapshot(long acquisitions, double acquireTotalNanos, double acquireMaxNanos, double timeouts) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.hibernatestates.monitoring;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Tracks one JDBC statement for SqlLog. An execution ends when its update count is known or, for queries,
+// when the result set or statement is closed, so query latency includes reading the rows
+class LoggedStatement implements InvocationHandler {
+    private final Statement statement;
+    private final String preparedSql;
+    private final SqlLog sqlLog;
+
+    private int binds;
+    private int batchSize;
+    // Current execution, running until finish()
+    private String sql;
+    private long start;
+    private long rows;
+    private boolean sampled;
+    private boolean executing;
+
+    LoggedStatement(Statement statement, String preparedSql, SqlLog sqlLog) {
+        this.statement = statement;
+        this.preparedSql = preparedSql;
+        this.sqlLog = sqlLog;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "close":
+                finish();
+                break;
+            case "clearParameters":
+                binds = 0;
+                break;
+            case "addBatch":
+                batchSize++;
+                break;
+            case "clearBatch":
+                batchSize = 0;
+                break;
+            default:
+                // Parameter setters take the parameter index first, other setters take a single value
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    binds = Math.max(binds, index);
+                }
+                break;
+        }
+        boolean execution = name.startsWith("execute");
+        if (execution) {
+            finish();
+            sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            start = System.nanoTime();
+            rows = 0;
+            sampled = sqlLog.sample();
+            executing = true;
+        }
+        Object result;
+        try {
+            result = method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            finish();
+            throw e.getCause();
+        }
+        if (result instanceof ResultSet resultSet && executing) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                    new ResultSetHandler(resultSet));
+        }
+        if (execution) {
+            if (result instanceof Number count) {
+                rows = count.longValue();
+                finish();
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(count, 0);
+                }
+                finish();
+            } else if (Boolean.FALSE.equals(result)) {
+                rows = statement.getUpdateCount();
+                finish();
+            }
+        }
+        return result;
+    }
+
+    private void finish() {
+        if (!executing) {
+            return;
+        }
+        executing = false;
+        sqlLog.record(sql, System.nanoTime() - start, binds, batchSize, rows, sampled);
+        batchSize = 0;
+    }
+
+    private class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+
+        ResultSetHandler(ResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    finish();
+                    break;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                rows++;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.hibernatestates.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// JMX only, so the switch cannot be flipped by anyone who can reach the HTTP port
+@Component
+@JmxEndpoint(id = "monitoring")
+public class MonitoringEndpoint {
+    private final MonitoringSwitch monitoringSwitch;
+
+    public MonitoringEndpoint(MonitoringSwitch monitoringSwitch) {
+        this.monitoringSwitch = monitoringSwitch;
+    }
+
+    @ReadOperation
+    public Map<String, Boolean> status() {
+        return Map.of("enabled", monitoringSwitch.isEnabled());
+    }
+
+    @WriteOperation
+    public Map<String, Boolean> update(boolean enabled) {
+        monitoringSwitch.setEnabled(enabled);
+        return status();
+    }
+}
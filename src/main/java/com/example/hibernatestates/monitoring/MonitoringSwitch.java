@@ -0,0 +1,33 @@
+package com.example.hibernatestates.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MonitoringSwitch {
+    private final SessionFactory sessionFactory;
+    private volatile boolean enabled;
+
+    public MonitoringSwitch(SessionFactory sessionFactory, MeterRegistry meterRegistry,
+                            @Value("${monitoring.enabled:false}") boolean enabled) {
+        this.sessionFactory = sessionFactory;
+        // HibernateMetrics only binds while statistics are enabled, so bind before applying the initial state
+        sessionFactory.getStatistics().setStatisticsEnabled(true);
+        new HibernateMetrics(sessionFactory, "default", Tags.empty()).bindTo(meterRegistry);
+        setEnabled(enabled);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Hibernate only collects statistics while enabled, so turning monitoring off also removes that cost
+    public void setEnabled(boolean enabled) {
+        sessionFactory.getStatistics().setStatisticsEnabled(enabled);
+        this.enabled = enabled;
+    }
+}
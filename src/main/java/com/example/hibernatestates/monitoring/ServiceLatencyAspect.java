@@ -0,0 +1,56 @@
+package com.example.hibernatestates.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+public class ServiceLatencyAspect {
+    static final String TIMER_NAME = "service.method.latency";
+
+    private final MeterRegistry meterRegistry;
+    private final MonitoringSwitch monitoringSwitch;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceLatencyAspect(MeterRegistry meterRegistry, MonitoringSwitch monitoringSwitch) {
+        this.meterRegistry = meterRegistry;
+        this.monitoringSwitch = monitoringSwitch;
+    }
+
+    @Around("execution(public * com.example.hibernatestates.service.EmployeeService.*(..))"
+            + " || execution(public * com.example.hibernatestates.service.ContactService.*(..))"
+            + " || execution(public * com.example.hibernatestates.service.ProjectService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        // When switched off the only cost is this volatile read
+        if (!monitoringSwitch.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Timer timer = timers.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(), this::timer);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Method method) {
+        return Timer.builder(TIMER_NAME)
+                .description("Latency of public service methods")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
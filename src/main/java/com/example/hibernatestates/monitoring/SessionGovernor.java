@@ -0,0 +1,184 @@
+package com.example.hibernatestates.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Keeps the persistence context of long-running units of work bounded. Clearing is opt-in: batch loops call
+// checkpoint, which flushes and clears once the session manages maxEntities entities, so entities the caller
+// still holds become Detached. observe only records the high-water mark and reports large collections, it never
+// changes the session
+@Component
+public class SessionGovernor {
+    static final String HIGH_WATER_MARK_GAUGE = "session.entities.high-water-mark";
+    static final String CLEARS_COUNTER = "session.governor.clears";
+    static final String LARGE_COLLECTIONS_COUNTER = "session.governor.large.collections";
+
+    private static final Logger log = LoggerFactory.getLogger(SessionGovernor.class);
+
+    private final int maxEntities;
+    private final int collectionWarnSize;
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+    // Per session, removed by the session's own listener when it closes
+    private final Map<Session, SessionState> sessionStates = new ConcurrentHashMap<>();
+    private final Counter clears;
+    private final Counter largeCollections;
+
+    public SessionGovernor(MeterRegistry meterRegistry,
+                           @Value("${session.governor.max-entities:10000}") int maxEntities,
+                           @Value("${session.governor.collection-warn-size:1000}") int collectionWarnSize) {
+        if (maxEntities <= 0 || collectionWarnSize <= 0) {
+            throw new IllegalArgumentException("Session governor limits must be positive, got "
+                    + maxEntities + " and " + collectionWarnSize);
+        }
+        this.maxEntities = maxEntities;
+        this.collectionWarnSize = collectionWarnSize;
+        Gauge.builder(HIGH_WATER_MARK_GAUGE, highWaterMark, AtomicInteger::get)
+                .description("Largest number of entities managed by a single session")
+                .register(meterRegistry);
+        this.clears = Counter.builder(CLEARS_COUNTER)
+                .description("Sessions flushed and cleared by the governor")
+                .register(meterRegistry);
+        this.largeCollections = Counter.builder(LARGE_COLLECTIONS_COUNTER)
+                .description("Managed collections that grew past the warning size")
+                .register(meterRegistry);
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    int getTrackedSessionCount() {
+        return sessionStates.size();
+    }
+
+    // Called by batch loops between units of work, the only place the governor flushes and clears
+    public void checkpoint(Session session) {
+        int entityCount = observe(session);
+        if (entityCount < maxEntities) {
+            return;
+        }
+        // Clearing without a transaction would drop pending changes that cannot be flushed
+        if (!session.getTransaction().isActive()) {
+            log.warn("Session manages {} entities, above the limit of {}, but has no active transaction to flush",
+                    entityCount, maxEntities);
+            return;
+        }
+        session.flush();
+        session.clear();
+        clears.increment();
+    }
+
+    // Counting is constant time, the persistence context is only walked when the session has grown by
+    // collectionWarnSize entities since the last walk, which is the least a collection that large adds.
+    // Returns the managed entity count
+    public int observe(Session session) {
+        if (!session.isOpen()) {
+            return 0;
+        }
+        int entityCount = session.getStatistics().getEntityCount();
+        highWaterMark.accumulateAndGet(entityCount, Math::max);
+        SessionState state = sessionStates.computeIfAbsent(session, this::register);
+        if (entityCount < state.nextScanAt - collectionWarnSize) {
+            // The session was cleared, scan again once it has grown back
+            state.nextScanAt = 0;
+        }
+        if (entityCount > collectionWarnSize && entityCount >= state.nextScanAt) {
+            checkCollections(session, state);
+            state.nextScanAt = entityCount + collectionWarnSize;
+        }
+        return entityCount;
+    }
+
+    private SessionState register(Session session) {
+        SessionState state = new SessionState(() -> sessionStates.remove(session));
+        session.addEventListeners(state);
+        return state;
+    }
+
+    private void checkCollections(Session session, SessionState state) {
+        PersistenceContext persistenceContext = session.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal();
+        Map<PersistentCollection<?>, CollectionEntry> entries = persistenceContext.getCollectionEntries();
+        if (entries == null) {
+            return;
+        }
+        entries.forEach((collection, entry) -> {
+            if (!collection.wasInitialized() || size(collection) <= collectionWarnSize) {
+                return;
+            }
+            String name = name(collection, persistenceContext);
+            if (state.reportedCollections.add(name)) {
+                largeCollections.increment();
+                log.warn("Collection {} holds {} elements, above the warning size of {}",
+                        name, size(collection), collectionWarnSize);
+            }
+        });
+    }
+
+    // Role and owner id, e.g. Employee.contacts#42. Collections of entities persisted in this session have
+    // neither until the first flush, their owner is then found among the managed entities
+    private static String name(PersistentCollection<?> collection, PersistenceContext persistenceContext) {
+        if (collection.getRole() != null) {
+            return collection.getRole() + "#" + collection.getKey();
+        }
+        for (Map.Entry<Object, EntityEntry> managed : persistenceContext.reentrantSafeEntityEntries()) {
+            EntityPersister persister = managed.getValue().getPersister();
+            Type[] types = persister.getPropertyTypes();
+            for (int i = 0; i < types.length; i++) {
+                if (types[i].isCollectionType() && persister.getValue(managed.getKey(), i) == collection) {
+                    return persister.getEntityName() + "." + persister.getPropertyNames()[i]
+                            + "#" + managed.getValue().getId();
+                }
+            }
+        }
+        return "unowned collection@" + Integer.toHexString(System.identityHashCode(collection));
+    }
+
+    private static int size(PersistentCollection<?> collection) {
+        if (collection instanceof Collection<?> elements) {
+            return elements.size();
+        }
+        return collection instanceof Map<?, ?> map ? map.size() : 0;
+    }
+
+    // Only touched by the thread using the session. Registered as a listener of its session, so it is
+    // dropped when the session closes
+    private static final class SessionState extends BaseSessionEventListener {
+        private static final long serialVersionUID = 1L;
+
+        // Collections already reported, by role and owner id, so a growing collection is reported once
+        private final Set<String> reportedCollections = new HashSet<>();
+        private final transient Runnable onEnd;
+        private int nextScanAt;
+
+        private SessionState(Runnable onEnd) {
+            this.onEnd = onEnd;
+        }
+
+        @Override
+        public void end() {
+            onEnd.run();
+        }
+    }
+}
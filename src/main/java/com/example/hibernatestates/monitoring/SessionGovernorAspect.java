@@ -0,0 +1,30 @@
+package com.example.hibernatestates.monitoring;
+
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class SessionGovernorAspect {
+    private final SessionGovernor sessionGovernor;
+    private final MonitoringSwitch monitoringSwitch;
+
+    public SessionGovernorAspect(SessionGovernor sessionGovernor, MonitoringSwitch monitoringSwitch) {
+        this.sessionGovernor = sessionGovernor;
+        this.monitoringSwitch = monitoringSwitch;
+    }
+
+    @AfterReturning(pointcut = "(execution(public * com.example.hibernatestates.service.EmployeeService.*(..))"
+            + " || execution(public * com.example.hibernatestates.service.ContactService.*(..))"
+            + " || execution(public * com.example.hibernatestates.service.ProjectService.*(..)))"
+            + " && args(.., session)", argNames = "session")
+    public void afterServiceCall(Session session) {
+        // Only observes, clearing here would detach entities the caller got from earlier calls in the same unit
+        // of work. When switched off the only cost is this volatile read
+        if (monitoringSwitch.isEnabled()) {
+            sessionGovernor.observe(session);
+        }
+    }
+}
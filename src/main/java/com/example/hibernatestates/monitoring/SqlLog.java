@@ -0,0 +1,92 @@
+package com.example.hibernatestates.monitoring;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Logs statements slower than slowThreshold, and a sampleRate share of the others, with their bind count,
+// affected or returned rows and the application method that ran them. The logger is bound to an async appender
+// when the bean is created, so the request thread only formats the entry
+@Component
+@ConditionalOnProperty(name = "sql.log.enabled", havingValue = "true")
+public class SqlLog {
+    private static final Logger log = LoggerFactory.getLogger(SqlLog.class);
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final String APPLICATION_PACKAGE = "com.example.hibernatestates.";
+    private static final String APPENDER_NAME = "SQL_LOG";
+    private static final int APPENDER_QUEUE_SIZE = 8192;
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+
+    public SqlLog(@Value("${sql.log.slow-threshold:100ms}") Duration slowThreshold,
+                  @Value("${sql.log.sample-rate:0.01}") double sampleRate) {
+        if (slowThreshold.isNegative() || sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Slow threshold must not be negative and sample rate must be "
+                    + "between 0 and 1, got " + slowThreshold + " and " + sampleRate);
+        }
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        bindAsyncAppender();
+    }
+
+    // Forwards to the appenders Boot configured on the root logger, the console and the log file when
+    // logging.file.name or logging.file.path is set, so root logging keeps Boot's defaults. When the queue is
+    // full, entries are dropped instead of blocking the thread that ran the statement
+    private static void bindAsyncAppender() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        ch.qos.logback.classic.Logger logger = context.getLogger(SqlLog.class);
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        if (logger.getAppender(APPENDER_NAME) != null || !root.iteratorForAppenders().hasNext()) {
+            return;
+        }
+        AsyncAppender appender = new AsyncAppender();
+        appender.setName(APPENDER_NAME);
+        appender.setContext(context);
+        appender.setQueueSize(APPENDER_QUEUE_SIZE);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        root.iteratorForAppenders().forEachRemaining(appender::addAppender);
+        appender.start();
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+    }
+
+    // Decided when the statement starts, so sampled statements are logged whatever their latency
+    boolean sample() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    void record(String sql, long elapsedNanos, int binds, int batchSize, long rows, boolean sampled) {
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!slow && !sampled) {
+            return;
+        }
+        log.info("elapsed-us={} rows={} binds={} batch={} slow={} caller={} sql={}",
+                elapsedNanos / 1_000, rows, binds, batchSize, slow, caller(), sql);
+    }
+
+    // Entries are recorded on the thread that ran the statement, so the first application frame outside
+    // this package is the service method, or the code that committed when the statement ran at flush
+    private static String caller() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().startsWith(SqlLog.class.getPackageName())
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.hibernatestates.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+@ConditionalOnProperty(name = "sql.log.enabled", havingValue = "true")
+public class SqlLoggingPostProcessor implements BeanPostProcessor {
+    // Resolved lazily, post processors are created before regular beans
+    private final ObjectProvider<SqlLog> sqlLog;
+
+    public SqlLoggingPostProcessor(ObjectProvider<SqlLog> sqlLog) {
+        this.sqlLog = sqlLog;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof SqlLoggingDataSource)) {
+            return new SqlLoggingDataSource(dataSource, sqlLog.getObject());
+        }
+        return bean;
+    }
+}
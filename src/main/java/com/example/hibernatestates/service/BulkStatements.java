@@ -0,0 +1,60 @@
+package com.example.hibernatestates.service;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Bulk statements bypass the persistence context, Hibernate only evicts the affected second-level cache regions,
+// so entities already managed by the session are brought back in line here
+final class BulkStatements {
+    // Keeps IN lists well below the bind parameter limits of common databases
+    static final int CHUNK_SIZE = 1000;
+
+    private BulkStatements() {
+    }
+
+    static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> distinct = values.stream().distinct().toList();
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    static void refreshManaged(Class<?> entityClass, Collection<Integer> ids, Session session) {
+        for (Object entity : managed(entityClass, ids, session)) {
+            session.refresh(entity);
+        }
+    }
+
+    static void detachManaged(Class<?> entityClass, Collection<Integer> ids, Session session) {
+        managed(entityClass, ids, session).forEach(session::detach);
+    }
+
+    // Lets callers skip the lookups, and any query needed to find the ids, when there is nothing to bring in line
+    static boolean managesEntities(Session session) {
+        return session.unwrap(SessionImplementor.class).getPersistenceContextInternal()
+                .getNumberOfManagedEntities() > 0;
+    }
+
+    private static List<Object> managed(Class<?> entityClass, Collection<Integer> ids, Session session) {
+        SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+        EntityPersister persister = sessionImplementor.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(entityClass);
+        PersistenceContext persistenceContext = sessionImplementor.getPersistenceContextInternal();
+        List<Object> managed = new ArrayList<>();
+        for (Integer id : ids) {
+            Object entity = persistenceContext.getEntity(sessionImplementor.generateEntityKey(id, persister));
+            if (entity != null) {
+                managed.add(entity);
+            }
+        }
+        return managed;
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.hibernatestates.service;
+
+public record CacheRegionStatistics(String region, long hitCount, long missCount, long evictionCount, long size) {
+}
@@ -0,0 +1,61 @@
+package com.example.hibernatestates.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.stereotype.Service;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class CacheStatisticsService {
+    private final SessionFactory sessionFactory;
+
+    public CacheStatisticsService(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public boolean isSecondLevelCacheEnabled() {
+        return sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+    }
+
+    // Reads the counters straight from the Caffeine caches behind each Hibernate region. The cache manager is
+    // looked up the way Hibernate's JCache region factory resolves it, from the configured provider and URI and the
+    // provider's default class loader, so both get the same instance
+    public List<CacheRegionStatistics> getRegionStatistics() {
+        List<CacheRegionStatistics> statistics = new ArrayList<>();
+        if (!isSecondLevelCacheEnabled()) {
+            return statistics;
+        }
+        CacheManager cacheManager = regionCacheManager(sessionFactory.getProperties());
+        for (String region : cacheManager.getCacheNames()) {
+            javax.cache.Cache<Object, Object> cache = cacheManager.getCache(region);
+            if (cache == null) {
+                continue;
+            }
+            Cache<?, ?> caffeineCache = cache.unwrap(Cache.class);
+            CacheStats stats = caffeineCache.stats();
+            statistics.add(new CacheRegionStatistics(region, stats.hitCount(), stats.missCount(),
+                    stats.evictionCount(), caffeineCache.estimatedSize()));
+        }
+        return statistics;
+    }
+
+    private static CacheManager regionCacheManager(Map<String, Object> properties) {
+        Object provider = properties.get(ConfigSettings.PROVIDER);
+        CachingProvider cachingProvider = provider == null
+                ? Caching.getCachingProvider()
+                : Caching.getCachingProvider(provider.toString());
+        Object uri = properties.get(ConfigSettings.CONFIG_URI);
+        return cachingProvider.getCacheManager(
+                uri == null ? cachingProvider.getDefaultURI() : URI.create(uri.toString()),
+                cachingProvider.getDefaultClassLoader());
+    }
+}
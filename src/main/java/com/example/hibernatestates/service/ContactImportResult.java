@@ -0,0 +1,10 @@
+package com.example.hibernatestates.service;
+
+import java.time.Duration;
+
+public record ContactImportResult(long rows, Duration elapsed) {
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : rows * 1_000_000_000d / nanos;
+    }
+}
@@ -1,19 +1,91 @@
 package com.example.hibernatestates.service;
 
 import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
 @Service
 public class ContactService {
+    private static final String IMPORT_HEADER = "employee_id,phone_number";
+    private static final Pattern PHONE_NUMBER_SEPARATORS = Pattern.compile("[\\s().-]");
+
     public void persistContact(Contact contact, Session session) {
+        normalizePhoneNumber(contact);
         session.persist(contact);
     }
 
+    public void persistContacts(Collection<Contact> contacts, Session session) {
+        persistContacts(contacts, SessionBatches.batchSize(session), session);
+    }
+
+    public void persistContacts(Collection<Contact> contacts, int batchSize, Session session) {
+        contacts.forEach(ContactService::normalizePhoneNumber);
+        SessionBatches.persistAll(contacts, batchSize, session);
+    }
+
+    public ContactImportResult importContacts(Reader csv, StatelessSession session) {
+        long start = System.nanoTime();
+        long rows = 0;
+        long lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.trim().equalsIgnoreCase(IMPORT_HEADER))) {
+                    continue;
+                }
+                // Nothing is kept per row: a stateless insert has no persistence context and the reader streams the input
+                session.insert(toContact(line, lineNumber));
+                rows++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read contacts at line " + lineNumber, e);
+        }
+        return new ContactImportResult(rows, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    public ContactImportResult importContacts(Reader csv, int batchSize, StatelessSession session) {
+        session.setJdbcBatchSize(batchSize);
+        return importContacts(csv, session);
+    }
+
+    // Resolves the phone number through the natural-id index, and through the natural-id cache when the
+    // second-level cache is enabled. The employee is only a proxy until it is accessed
+    public Optional<Contact> findByPhoneNumber(String phoneNumber, Session session) {
+        return session.bySimpleNaturalId(Contact.class).loadOptional(normalizePhoneNumber(phoneNumber));
+    }
+
+    public List<ContactView> getContactViews(Session session) {
+        return session.createQuery(
+                        "select new com.example.hibernatestates.service.ContactView(c.phoneNumber, e.name) "
+                                + "from Contact c join c.employee e order by c.id",
+                        ContactView.class)
+                .getResultList();
+    }
+
+    // Returns the managed instance, which is a different one when a detached contact was merged
+    public Contact save(Contact contact, Session session) {
+        normalizePhoneNumber(contact);
+        return EntitySaves.save(contact, session);
+    }
+
     public void updateContact(Contact contact, Session session) {
         if (session.find(Contact.class, contact.getId()) == null) {
             throw new RuntimeException("Contact with id " + contact.getId() + " not found");
         }
+        normalizePhoneNumber(contact);
         session.merge(contact);
     }
 
@@ -23,4 +95,56 @@ public class ContactService {
         }
         session.remove(contact);
     }
+
+    public void updateContactVersioned(Contact contact, Session session) {
+        VersionChecks.requireDetached(contact, session);
+        normalizePhoneNumber(contact);
+        int updated = session.createMutationQuery(
+                        "update versioned Contact c set c.phoneNumber = :phoneNumber, c.employee = :employee "
+                                + "where c.id = :id and c.version = :version")
+                .setParameter("phoneNumber", contact.getPhoneNumber())
+                .setParameter("employee", contact.getEmployee())
+                .setParameter("id", contact.getId())
+                .setParameter("version", contact.getVersion())
+                .executeUpdate();
+        VersionChecks.checkRowCount(updated, contact, contact.getId(), session);
+        contact.setVersion(contact.getVersion() + 1);
+    }
+
+    public void deleteContactVersioned(Contact contact, Session session) {
+        VersionChecks.requireDetached(contact, session);
+        int deleted = session.createMutationQuery("delete from Contact c where c.id = :id and c.version = :version")
+                .setParameter("id", contact.getId())
+                .setParameter("version", contact.getVersion())
+                .executeUpdate();
+        VersionChecks.checkRowCount(deleted, contact, contact.getId(), session);
+    }
+
+    // Drops whitespace, dots, dashes and parentheses, e.g. "+1 (555) 010-2030" becomes "+15550102030"
+    public static String normalizePhoneNumber(String phoneNumber) {
+        return phoneNumber == null ? null : PHONE_NUMBER_SEPARATORS.matcher(phoneNumber).replaceAll("");
+    }
+
+    // Every write path stores the normalized number, so findByPhoneNumber matches however it was entered
+    static void normalizePhoneNumber(Contact contact) {
+        contact.setPhoneNumber(normalizePhoneNumber(contact.getPhoneNumber()));
+    }
+
+    private static Contact toContact(String line, long lineNumber) {
+        int separator = line.indexOf(',');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not in employee_id,phone_number format");
+        }
+        // The employee is only referenced by id, so it is never loaded
+        Employee employee = new Employee();
+        try {
+            employee.setId(Integer.parseInt(line.substring(0, separator).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " has an invalid employee id", e);
+        }
+        Contact contact = new Contact();
+        contact.setPhoneNumber(normalizePhoneNumber(line.substring(separator + 1)));
+        contact.setEmployee(employee);
+        return contact;
+    }
 }
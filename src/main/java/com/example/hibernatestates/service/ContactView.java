@@ -0,0 +1,4 @@
+package com.example.hibernatestates.service;
+
+public record ContactView(String phoneNumber, String employeeName) {
+}
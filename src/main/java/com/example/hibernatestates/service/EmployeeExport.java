@@ -0,0 +1,8 @@
+package com.example.hibernatestates.service;
+
+import java.util.List;
+
+public record EmployeeExport(int id, String name, List<ContactExport> contacts) {
+    public record ContactExport(int id, String phoneNumber) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.hibernatestates.service;
+
+import com.example.hibernatestates.entity.Employee;
+
+public enum EmployeeFetchPlan {
+    // Contacts stay lazy and are loaded in batches when first accessed
+    EMPLOYEE_ONLY(Employee.GRAPH_EMPLOYEE_ONLY),
+    // Contacts are fetched in the same statement as the employees
+    EMPLOYEE_WITH_CONTACTS(Employee.GRAPH_WITH_CONTACTS);
+
+    private final String graphName;
+
+    EmployeeFetchPlan(String graphName) {
+        this.graphName = graphName;
+    }
+
+    public String getGraphName() {
+        return graphName;
+    }
+}
@@ -1,15 +1,45 @@
 package com.example.hibernatestates.service;
 
+import com.example.hibernatestates.entity.Contact;
 import com.example.hibernatestates.entity.Employee;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
 @Service
 public class EmployeeService {
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
     public void persistEmployee(Employee employee, Session session) {
+        normalizePhoneNumbers(employee);
         session.persist(employee);
     }
 
+    public void persistEmployees(Collection<Employee> employees, Session session) {
+        persistEmployees(employees, SessionBatches.batchSize(session), session);
+    }
+
+    public void persistEmployees(Collection<Employee> employees, int batchSize, Session session) {
+        employees.forEach(EmployeeService::normalizePhoneNumbers);
+        SessionBatches.persistAll(employees, batchSize, session);
+    }
+
+    // Returns the managed instance, which is a different one when a detached employee was merged
+    public Employee save(Employee employee, Session session) {
+        normalizePhoneNumbers(employee);
+        return EntitySaves.save(employee, session);
+    }
+
     public void deleteEmployee(Employee employee, Session session) {
         if (session.find(Employee.class, employee.getId()) == null) {
             throw new RuntimeException("Employee with id " + employee.getId() + " not found");
@@ -21,6 +51,157 @@ public class EmployeeService {
         if (session.find(Employee.class, employee.getId()) == null) {
             throw new RuntimeException("Employee with id " + employee.getId() + " not found");
         }
+        normalizePhoneNumbers(employee);
         session.merge(employee);
     }
+
+    // Deletes the employees and their contacts with two statements per chunk of ids, returns how many employees
+    // were deleted. Matching entities managed by the session are detached, as the rows no longer exist
+    public int deleteEmployeesWithContacts(Collection<Integer> ids, Session session) {
+        session.flush();
+        int deleted = 0;
+        for (List<Integer> chunk : BulkStatements.chunks(ids)) {
+            // Contacts are managed under their own ids, so those are only looked up while anything is managed
+            List<Integer> contactIds = BulkStatements.managesEntities(session)
+                    ? session.createQuery("select c.id from Contact c where c.employee.id in :ids", Integer.class)
+                            .setParameterList("ids", chunk)
+                            .getResultList()
+                    : List.of();
+            session.createMutationQuery("delete from Contact c where c.employee.id in :ids")
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+            deleted += session.createMutationQuery("delete from Employee e where e.id in :ids")
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+            BulkStatements.detachManaged(Contact.class, contactIds, session);
+            BulkStatements.detachManaged(Employee.class, chunk, session);
+        }
+        return deleted;
+    }
+
+    public void updateEmployeeVersioned(Employee employee, Session session) {
+        VersionChecks.requireDetached(employee, session);
+        int updated = session.createMutationQuery(
+                        "update versioned Employee e set e.name = :name where e.id = :id and e.version = :version")
+                .setParameter("name", employee.getName())
+                .setParameter("id", employee.getId())
+                .setParameter("version", employee.getVersion())
+                .executeUpdate();
+        VersionChecks.checkRowCount(updated, employee, employee.getId(), session);
+        employee.setVersion(employee.getVersion() + 1);
+    }
+
+    public void deleteEmployeeVersioned(Employee employee, Session session) {
+        VersionChecks.requireDetached(employee, session);
+        int deleted = session.createMutationQuery("delete from Employee e where e.id = :id and e.version = :version")
+                .setParameter("id", employee.getId())
+                .setParameter("version", employee.getVersion())
+                .executeUpdate();
+        VersionChecks.checkRowCount(deleted, employee, employee.getId(), session);
+    }
+
+    public Employee getEmployeeById(int id, EmployeeFetchPlan fetchPlan, Session session) {
+        return loadEmployee(id, fetchPlan, false, session);
+    }
+
+    // Read-only lookups keep no snapshot of the loaded state and are skipped by dirty checking at flush,
+    // changes made to the returned entities are never written
+    public Employee getEmployeeByIdReadOnly(int id, EmployeeFetchPlan fetchPlan, Session session) {
+        return loadEmployee(id, fetchPlan, true, session);
+    }
+
+    public List<Employee> getEmployees(EmployeeFetchPlan fetchPlan, Session session) {
+        return loadEmployees(fetchPlan, false, session);
+    }
+
+    public List<Employee> getEmployeesReadOnly(EmployeeFetchPlan fetchPlan, Session session) {
+        return loadEmployees(fetchPlan, true, session);
+    }
+
+    // Keyset page of employees with an id greater than afterId, without their contacts
+    public List<Employee> getEmployeesAfter(int afterId, int limit, Session session) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive, got " + limit);
+        }
+        return session.createQuery("from Employee e where e.id > :afterId order by e.id", Employee.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .setReadOnly(true)
+                .getResultList();
+    }
+
+    // Passes every employee with its contacts to the consumer, returns how many employees were exported.
+    // Rows come as plain columns from one forward-only cursor ordered by employee, so no entity is created and
+    // only the current employee is held in memory, however many rows are exported
+    public long exportEmployees(Consumer<EmployeeExport> consumer, StatelessSession session) {
+        long employees = 0;
+        try (ScrollableResults<Object[]> rows = session.createQuery(
+                        "select e.id, e.name, c.id, c.phoneNumber from Employee e left join e.contacts c "
+                                + "order by e.id, c.id", Object[].class)
+                .setFetchSize(EXPORT_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            Integer currentId = null;
+            String currentName = null;
+            List<EmployeeExport.ContactExport> contacts = new ArrayList<>();
+            while (rows.next()) {
+                Object[] row = rows.get();
+                Integer employeeId = (Integer) row[0];
+                if (!employeeId.equals(currentId)) {
+                    if (currentId != null) {
+                        consumer.accept(new EmployeeExport(currentId, currentName, List.copyOf(contacts)));
+                        contacts.clear();
+                    }
+                    currentId = employeeId;
+                    currentName = (String) row[1];
+                    employees++;
+                }
+                if (row[2] != null) {
+                    contacts.add(new EmployeeExport.ContactExport((Integer) row[2], (String) row[3]));
+                }
+            }
+            if (currentId != null) {
+                consumer.accept(new EmployeeExport(currentId, currentName, List.copyOf(contacts)));
+            }
+        }
+        return employees;
+    }
+
+    // Projections are plain records built by the query, they never enter the persistence context
+    public List<EmployeeSummary> getEmployeeSummaries(Session session) {
+        return session.createQuery(
+                        "select new com.example.hibernatestates.service.EmployeeSummary(e.id, e.name, count(c)) "
+                                + "from Employee e left join e.contacts c group by e.id, e.name order by e.id",
+                        EmployeeSummary.class)
+                .getResultList();
+    }
+
+    private Employee loadEmployee(int id, EmployeeFetchPlan fetchPlan, boolean readOnly, Session session) {
+        Employee employee = session.byId(Employee.class)
+                .with(graph(fetchPlan, session), GraphSemantic.FETCH)
+                .withReadOnly(readOnly)
+                .load(id);
+        if (employee == null) {
+            throw new RuntimeException("Employee with id " + id + " not found");
+        }
+        return employee;
+    }
+
+    private List<Employee> loadEmployees(EmployeeFetchPlan fetchPlan, boolean readOnly, Session session) {
+        return session.createQuery("from Employee e order by e.id", Employee.class)
+                .applyGraph(graph(fetchPlan, session), GraphSemantic.FETCH)
+                .setReadOnly(readOnly)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RootGraph<Employee> graph(EmployeeFetchPlan fetchPlan, Session session) {
+        return (RootGraph<Employee>) session.getEntityGraph(fetchPlan.getGraphName());
+    }
+
+    // Contacts are written by cascade, only those already loaded can have been changed
+    private static void normalizePhoneNumbers(Employee employee) {
+        if (Hibernate.isPropertyInitialized(employee, "contacts") && Hibernate.isInitialized(employee.getContacts())) {
+            employee.getContacts().forEach(ContactService::normalizePhoneNumber);
+        }
+    }
 }
@@ -0,0 +1,4 @@
+package com.example.hibernatestates.service;
+
+public record EmployeeSummary(int id, String name, long contactCount) {
+}
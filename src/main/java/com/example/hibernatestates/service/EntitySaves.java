@@ -0,0 +1,39 @@
+package com.example.hibernatestates.service;
+
+import org.hibernate.Session;
+
+final class EntitySaves {
+    private EntitySaves() {
+    }
+
+    // Picks the transition from the state of the instance, so none of them needs an existence query first:
+    // transient and removed instances are persisted, persistent ones are left alone, and detached ones are
+    // reattached, or merged into the instance of their row the session already manages.
+    // Reattaching writes every column at flush and relies on the version check to catch stale or deleted rows.
+    // An entry whose DELETE already ran is GONE, persisting it would silently do nothing, so that is refused
+    // Session.update is deprecated in favour of merge, but merge selects the row first, and reattaching
+    // without that SELECT is the point of the DETACHED branch
+    @SuppressWarnings("deprecation")
+    static <T> T save(T entity, Session session) {
+        switch (EntityStateInspector.stateOf(entity, session)) {
+            case TRANSIENT -> session.persist(entity);
+            case REMOVED -> {
+                if (EntityStateInspector.isDeleteFlushed(entity, session)) {
+                    throw new IllegalArgumentException(session.getEntityName(entity)
+                            + " was already deleted by this session and cannot be saved again");
+                }
+                session.persist(entity);
+            }
+            case PERSISTENT -> {
+            }
+            case DETACHED -> {
+                Object managed = EntityStateInspector.managedCopy(entity, session);
+                if (managed != null) {
+                    return session.merge(entity);
+                }
+                session.update(entity);
+            }
+        }
+        return entity;
+    }
+}
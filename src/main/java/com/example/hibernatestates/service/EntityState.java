@@ -0,0 +1,8 @@
+package com.example.hibernatestates.service;
+
+public enum EntityState {
+    TRANSIENT,
+    PERSISTENT,
+    DETACHED,
+    REMOVED
+}
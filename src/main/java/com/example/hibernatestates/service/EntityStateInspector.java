@@ -0,0 +1,82 @@
+package com.example.hibernatestates.service;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+// Classifies entity instances from the persistence context and the identifier and version metadata alone,
+// without the snapshot query or cache lookup Hibernate falls back to when the id alone is not conclusive.
+// Detached means the instance holds the id of a row, which may since have been deleted by another transaction
+public final class EntityStateInspector {
+    private EntityStateInspector() {
+    }
+
+    public static EntityState stateOf(Object entity, Session session) {
+        SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+        PersistenceContext persistenceContext = sessionImplementor.getPersistenceContextInternal();
+        if (entity instanceof HibernateProxy proxy) {
+            LazyInitializer lazyInitializer = proxy.getHibernateLazyInitializer();
+            if (!persistenceContext.containsProxy(proxy)) {
+                return EntityState.DETACHED;
+            }
+            if (lazyInitializer.isUninitialized()) {
+                return EntityState.PERSISTENT;
+            }
+            entity = lazyInitializer.getImplementation();
+        }
+
+        EntityEntry entry = persistenceContext.getEntry(entity);
+        if (entry != null) {
+            return entry.getStatus() == Status.DELETED || entry.getStatus() == Status.GONE
+                    ? EntityState.REMOVED
+                    : EntityState.PERSISTENT;
+        }
+        return isUnsaved(entity, sessionImplementor) ? EntityState.TRANSIENT : EntityState.DETACHED;
+    }
+
+    // Removed instances whose DELETE has already been executed, persisting those no longer cancels the removal
+    static boolean isDeleteFlushed(Object entity, Session session) {
+        if (entity instanceof HibernateProxy proxy) {
+            entity = proxy.getHibernateLazyInitializer().getImplementation();
+        }
+        EntityEntry entry = session.unwrap(SessionImplementor.class).getPersistenceContextInternal().getEntry(entity);
+        return entry != null && entry.getStatus() == Status.GONE;
+    }
+
+    // The instance of the same row managed by the session, if it is not the given one
+    static Object managedCopy(Object entity, Session session) {
+        SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+        EntityPersister persister = sessionImplementor.getEntityPersister(null, entity);
+        Object id = persister.getIdentifier(entity, sessionImplementor);
+        Object managed = sessionImplementor.getPersistenceContextInternal()
+                .getEntity(sessionImplementor.generateEntityKey(id, persister));
+        return managed == entity ? null : managed;
+    }
+
+    // Same order as Hibernate's own check: the version unsaved-value when it is defined, then the identifier one
+    private static boolean isUnsaved(Object entity, SessionImplementor session) {
+        EntityPersister persister = session.getEntityPersister(null, entity);
+        Object id = persister.getIdentifier(entity, session);
+        if (id == null) {
+            return true;
+        }
+        if (persister.isVersioned()) {
+            Boolean unsaved = persister.getVersionMapping().getUnsavedStrategy()
+                    .isUnsaved(persister.getVersion(entity));
+            if (unsaved != null) {
+                return unsaved;
+            }
+        }
+        Boolean unsaved = persister.getIdentifierMapping().getUnsavedStrategy().isUnsaved(id);
+        if (unsaved == null) {
+            throw new IllegalArgumentException(persister.getEntityName()
+                    + " has no unsaved-value for its id or version, its state cannot be decided without a query");
+        }
+        return unsaved;
+    }
+}
@@ -1,23 +1,107 @@
 package com.example.hibernatestates.service;
 
 import com.example.hibernatestates.entity.Project;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 @Service
 public class ProjectService {
+    private static final int DEFAULT_FETCH_SIZE = 100;
+
+    // Only set with project.write-behind.enabled=true
+    private final ProjectUpdateBuffer writeBehind;
+
+    public ProjectService() {
+        this.writeBehind = null;
+    }
+
+    @Autowired
+    public ProjectService(SessionFactory sessionFactory,
+                          @Value("${project.write-behind.enabled:false}") boolean writeBehindEnabled,
+                          @Value("${project.write-behind.flush-interval:100ms}") Duration flushInterval,
+                          @Value("${project.write-behind.batch-size:500}") int batchSize,
+                          @Value("${project.write-behind.max-pending:10000}") int maxPending) {
+        this.writeBehind = writeBehindEnabled
+                ? new ProjectUpdateBuffer(sessionFactory, flushInterval, batchSize, maxPending)
+                : null;
+    }
+
     public void persistProject(Project project, Session session) {
         session.persist(project);
     }
 
+    public void persistProjects(Collection<Project> projects, Session session) {
+        persistProjects(projects, SessionBatches.batchSize(session), session);
+    }
+
+    public void persistProjects(Collection<Project> projects, int batchSize, Session session) {
+        SessionBatches.persistAll(projects, batchSize, session);
+    }
+
     public void saveProject(Project project, Session session) {
         session.save(project);
     }
 
-    public void updateProject(Project project, Session session) {
+    // Returns the managed instance, which is a different one when a detached project was merged
+    public Project save(Project project, Session session) {
+        return EntitySaves.save(project, session);
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehind != null;
+    }
+
+    // Writes the project in the caller's session. In write-behind mode the session is not used, the update is
+    // buffered instead and the future completes once it is written, see updateProject(Project)
+    public CompletableFuture<Void> updateProject(Project project, Session session) {
+        if (writeBehind != null) {
+            return writeBehind.submit(project);
+        }
         if (getProjectById(project.getId(), session) != null) {
             session.merge(project);
         }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // Write-behind mode only. Repeated updates to the same project are merged and written in batches by the
+    // buffer's own transaction. The future fails with OptimisticLockException when the project was changed outside
+    // the buffer since the version of the first merged update. Blocks while the buffer is full
+    public CompletableFuture<Void> updateProject(Project project) {
+        if (writeBehind == null) {
+            throw new IllegalStateException("Write-behind mode is off, set project.write-behind.enabled=true");
+        }
+        return writeBehind.submit(project);
+    }
+
+    // Writes whatever updates are buffered, returns how many projects were updated
+    public int flushProjectUpdates() {
+        return writeBehind == null ? 0 : writeBehind.flush();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    ProjectUpdateBuffer getWriteBehind() {
+        return writeBehind;
     }
 
     public void deleteProject(Project project, Session session) {
@@ -26,6 +110,44 @@ public class ProjectService {
         }
     }
 
+    public void updateProjectVersioned(Project project, Session session) {
+        VersionChecks.requireDetached(project, session);
+        int updated = session.createMutationQuery(
+                        "update versioned Project p set p.name = :name, p.isCompleted = :completed "
+                                + "where p.id = :id and p.version = :version")
+                .setParameter("name", project.getName())
+                .setParameter("completed", project.isCompleted())
+                .setParameter("id", project.getId())
+                .setParameter("version", project.getVersion())
+                .executeUpdate();
+        VersionChecks.checkRowCount(updated, project, project.getId(), session);
+        project.setVersion(project.getVersion() + 1);
+    }
+
+    public void deleteProjectVersioned(Project project, Session session) {
+        VersionChecks.requireDetached(project, session);
+        int deleted = session.createMutationQuery("delete from Project p where p.id = :id and p.version = :version")
+                .setParameter("id", project.getId())
+                .setParameter("version", project.getVersion())
+                .executeUpdate();
+        VersionChecks.checkRowCount(deleted, project, project.getId(), session);
+    }
+
+    // Completes the projects with one versioned statement per chunk of ids, returns how many rows changed
+    public int completeProjects(Collection<Integer> ids, Session session) {
+        session.flush();
+        int updated = 0;
+        for (List<Integer> chunk : BulkStatements.chunks(ids)) {
+            updated += session.createMutationQuery(
+                            "update versioned Project p set p.isCompleted = true "
+                                    + "where p.id in :ids and p.isCompleted = false")
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+            BulkStatements.refreshManaged(Project.class, chunk, session);
+        }
+        return updated;
+    }
+
     public Project getProjectById(Integer id, Session session) {
         Project project = session.find(Project.class, id);
         if (project == null) {
@@ -33,4 +155,81 @@ public class ProjectService {
         }
         return project;
     }
+
+    // Read-only lookups keep no snapshot of the loaded state and are skipped by dirty checking at flush,
+    // changes made to the returned entities are never written
+    public Project getProjectByIdReadOnly(Integer id, Session session) {
+        Project project = session.byId(Project.class)
+                .withReadOnly(true)
+                .load(id);
+        if (project == null) {
+            throw new RuntimeException("Project with id " + id + " not found");
+        }
+        return project;
+    }
+
+    public List<Project> getProjectsByCompleted(boolean completed, Session session) {
+        return loadProjectsByCompleted(completed, false, session);
+    }
+
+    public List<Project> getProjectsByCompletedReadOnly(boolean completed, Session session) {
+        return loadProjectsByCompleted(completed, true, session);
+    }
+
+    private List<Project> loadProjectsByCompleted(boolean completed, boolean readOnly, Session session) {
+        return session.createQuery("from Project p where p.isCompleted = :completed order by p.id", Project.class)
+                .setParameter("completed", completed)
+                .setCacheable(true)
+                .setReadOnly(readOnly)
+                .getResultList();
+    }
+
+    // Keyset page of projects with an id greater than afterId, seeking through the primary key or,
+    // when filtering on completed, through idx_projects_completed_id so deep pages cost the same as the first
+    public List<Project> getProjectsAfter(int afterId, int limit, Boolean completed, Session session) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive, got " + limit);
+        }
+        String filter = completed == null ? "" : " and p.isCompleted = :completed";
+        Query<Project> query = session.createQuery("from Project p where p.id > :afterId" + filter + " order by p.id",
+                        Project.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .setReadOnly(true);
+        if (completed != null) {
+            query.setParameter("completed", completed);
+        }
+        return query.getResultList();
+    }
+
+    public long forEachProject(Consumer<Project> action, Session session) {
+        return forEachProject(action, DEFAULT_FETCH_SIZE, session);
+    }
+
+    // Walks the whole table with a forward-only cursor, detaching every fetchSize processed projects
+    // so that neither the persistence context nor the second-level cache grows with the table
+    public long forEachProject(Consumer<Project> action, int fetchSize, Session session) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive, got " + fetchSize);
+        }
+        long count = 0;
+        List<Project> processed = new ArrayList<>(fetchSize);
+        try (ScrollableResults<Project> results = session.createQuery("from Project p order by p.id", Project.class)
+                .setFetchSize(fetchSize)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Project project = results.get();
+                action.accept(project);
+                processed.add(project);
+                count++;
+                if (processed.size() == fetchSize) {
+                    processed.forEach(session::detach);
+                    processed.clear();
+                }
+            }
+        }
+        processed.forEach(session::detach);
+        return count;
+    }
 }
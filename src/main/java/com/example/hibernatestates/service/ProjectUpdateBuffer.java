@@ -0,0 +1,285 @@
+package com.example.hibernatestates.service;
+
+import com.example.hibernatestates.entity.Project;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Write-behind mode of ProjectService.updateProject: updates to the same id are merged, last writer wins, and only
+// the latest name and completed state are written, every flush interval or as soon as batch size projects are
+// waiting. Merged updates are checked against the version of the first pending one, and once written every
+// submitted instance, and any update for the same id that arrived in the meantime, moves on to the new version,
+// so a hot project can be submitted again without reloading it. Submitters block once max pending projects are
+// buffered, and whatever is left is written on close.
+// Each submit gets a future that completes when its update is written, or fails with OptimisticLockException
+// when the row changed outside the buffer. When a batch fails its updates are written one by one, and an update
+// that still fails after MAX_ATTEMPTS flushes fails its futures, so it cannot hold back the others
+class ProjectUpdateBuffer {
+    private static final Logger log = LoggerFactory.getLogger(ProjectUpdateBuffer.class);
+    static final int MAX_ATTEMPTS = 3;
+
+    private final SessionFactory sessionFactory;
+    private final int batchSize;
+    private final int maxPending;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Map<Integer, PendingUpdate> pending = new LinkedHashMap<>();
+    private int inFlight;
+    private boolean closed;
+
+    ProjectUpdateBuffer(SessionFactory sessionFactory, Duration flushInterval, int batchSize, int maxPending) {
+        if (batchSize <= 0 || maxPending < batchSize) {
+            throw new IllegalArgumentException("Batch size must be positive and not above max pending, got "
+                    + batchSize + " and " + maxPending);
+        }
+        this.sessionFactory = sessionFactory;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "project-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Buffers the current name and completed state of the project, later changes to the instance are not seen.
+    // The version is read and, once written, advanced while holding the buffer's lock
+    CompletableFuture<Void> submit(Project project) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        boolean full;
+        synchronized (this) {
+            try {
+                while (!closed && !pending.containsKey(project.getId()) && pending.size() + inFlight >= maxPending) {
+                    requestFlush();
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.failedFuture(e);
+            }
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Project update buffer is closed"));
+            }
+            pending.computeIfAbsent(project.getId(), id -> new PendingUpdate(id, project.getVersion()))
+                    .merge(project, future);
+            full = pending.size() >= batchSize;
+        }
+        if (full) {
+            requestFlush();
+        }
+        return future;
+    }
+
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    // Writes everything buffered so far and returns the number of projects updated
+    int flush() {
+        writeLock.lock();
+        try {
+            List<PendingUpdate> updates;
+            synchronized (this) {
+                updates = List.copyOf(pending.values());
+                pending = new LinkedHashMap<>();
+                inFlight = updates.size();
+            }
+            try {
+                return write(updates);
+            } catch (RuntimeException e) {
+                log.warn("Failed to write {} buffered project updates together, writing them one by one",
+                        updates.size(), e);
+                return writeEach(updates);
+            } finally {
+                synchronized (this) {
+                    inFlight = 0;
+                    notifyAll();
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void close() throws InterruptedException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        // Every flush either writes, fails or retries an update, so this ends within MAX_ATTEMPTS rounds
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && getPendingCount() > 0; attempt++) {
+            flush();
+        }
+    }
+
+    // Loads the buffered projects with one query per chunk and changes them in place, so the flush sends batched,
+    // versioned UPDATEs. Futures are only completed once the transaction committed, a failed one is written again
+    // one by one
+    private int write(List<PendingUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        Map<PendingUpdate, Integer> written = new LinkedHashMap<>();
+        Map<PendingUpdate, RuntimeException> conflicts = new LinkedHashMap<>();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (List<PendingUpdate> chunk : BulkStatements.chunks(updates)) {
+                Map<Integer, Project> projects = new LinkedHashMap<>();
+                session.createQuery("from Project p where p.id in :ids", Project.class)
+                        .setParameterList("ids", chunk.stream().map(PendingUpdate::id).toList())
+                        .getResultList()
+                        .forEach(project -> projects.put(project.getId(), project));
+                for (PendingUpdate update : chunk) {
+                    Project project = projects.get(update.id());
+                    if (project == null) {
+                        conflicts.put(update, new RuntimeException("Project with id " + update.id() + " not found"));
+                    } else if (project.getVersion() != update.version()) {
+                        conflicts.put(update, new OptimisticLockException("Project with id " + update.id()
+                                + " is at version " + project.getVersion() + ", the update was made against version "
+                                + update.version(), null, project));
+                    } else {
+                        project.setName(update.name());
+                        project.setCompleted(update.completed());
+                    }
+                }
+                session.flush();
+                chunk.stream()
+                        .filter(update -> !conflicts.containsKey(update))
+                        .forEach(update -> written.put(update, projects.get(update.id()).getVersion()));
+                session.clear();
+            }
+            session.getTransaction().commit();
+        }
+        written.forEach(this::completeWritten);
+        conflicts.forEach(PendingUpdate::fail);
+        return written.size();
+    }
+
+    // Isolates the updates of a failed batch, those that fail on their own are retried by later flushes
+    private int writeEach(List<PendingUpdate> updates) {
+        int written = 0;
+        List<PendingUpdate> retries = new ArrayList<>();
+        for (PendingUpdate update : updates) {
+            try {
+                written += write(List.of(update));
+            } catch (RuntimeException e) {
+                if (update.retried() < MAX_ATTEMPTS) {
+                    retries.add(update);
+                } else {
+                    update.fail(e);
+                }
+            }
+        }
+        requeue(retries);
+        return written;
+    }
+
+    // Moves the submitted instances, and any update made against the same version while this one was written,
+    // on to the version the row has now
+    private synchronized void completeWritten(PendingUpdate update, int version) {
+        update.projects.forEach(project -> project.setVersion(version));
+        PendingUpdate next = pending.get(update.id());
+        if (next != null && next.version == update.version()) {
+            next.version = version;
+        }
+        update.futures.forEach(future -> future.complete(null));
+    }
+
+    // Puts failed updates back, a newer update for the same project that arrived in the meantime is merged into it
+    private synchronized void requeue(List<PendingUpdate> updates) {
+        Map<Integer, PendingUpdate> merged = new LinkedHashMap<>();
+        updates.forEach(update -> merged.put(update.id(), update));
+        pending.forEach((id, update) -> merged.merge(id, update, PendingUpdate::mergeNewer));
+        pending = merged;
+    }
+
+    private void requestFlush() {
+        try {
+            scheduler.execute(this::flushQuietly);
+        } catch (RejectedExecutionException e) {
+            // Shutting down, close() writes whatever is still pending
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to write buffered project updates", e);
+        }
+    }
+
+    // Guarded by the buffer's lock while pending, owned by the flushing thread once taken out
+    private static final class PendingUpdate {
+        private final int id;
+        private final List<Project> projects = new ArrayList<>();
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        private int version;
+        private String name;
+        private boolean completed;
+        private int attempts;
+
+        private PendingUpdate(int id, int version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        int id() {
+            return id;
+        }
+
+        int version() {
+            return version;
+        }
+
+        String name() {
+            return name;
+        }
+
+        boolean completed() {
+            return completed;
+        }
+
+        void merge(Project project, CompletableFuture<Void> future) {
+            name = project.getName();
+            completed = project.isCompleted();
+            projects.add(project);
+            futures.add(future);
+        }
+
+        // Keeps this update's version and takes the state of the newer one
+        PendingUpdate mergeNewer(PendingUpdate newer) {
+            name = newer.name;
+            completed = newer.completed;
+            projects.addAll(newer.projects);
+            futures.addAll(newer.futures);
+            return this;
+        }
+
+        int retried() {
+            return ++attempts;
+        }
+
+        void fail(Throwable failure) {
+            futures.forEach(future -> future.completeExceptionally(failure));
+        }
+    }
+}
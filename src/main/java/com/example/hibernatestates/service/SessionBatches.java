@@ -0,0 +1,37 @@
+package com.example.hibernatestates.service;
+
+import org.hibernate.Session;
+
+import java.util.Collection;
+
+final class SessionBatches {
+    static final int DEFAULT_BATCH_SIZE = 50;
+
+    private SessionBatches() {
+    }
+
+    // Uses the session's JDBC batch size so that every flush fills whole batches
+    static int batchSize(Session session) {
+        Integer batchSize = session.getJdbcBatchSize();
+        if (batchSize == null || batchSize <= 0) {
+            batchSize = session.getSessionFactory().getSessionFactoryOptions().getJdbcBatchSize();
+        }
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    static <T> void persistAll(Collection<T> entities, int batchSize, Session session) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        }
+        int count = 0;
+        for (T entity : entities) {
+            session.persist(entity);
+            if (++count % batchSize == 0) {
+                session.flush();
+                session.clear();
+            }
+        }
+        session.flush();
+        session.clear();
+    }
+}
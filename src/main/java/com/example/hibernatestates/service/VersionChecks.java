@@ -0,0 +1,47 @@
+package com.example.hibernatestates.service;
+
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+
+final class VersionChecks {
+    private VersionChecks() {
+    }
+
+    // The versioned statements bind the version the caller holds, which only works for Detached instances. A managed
+    // instance is auto-flushed before the statement, moving its version on, or keeps a loaded snapshot that would no
+    // longer match the row afterwards, so it is refused and should be changed directly instead
+    static void requireDetached(Object entity, Session session) {
+        if (session.contains(entity)) {
+            throw new IllegalArgumentException(shortName(entityName(entity, session))
+                    + " is managed by this session, change it directly instead of with a versioned statement");
+        }
+    }
+
+    // Only runs the existence query when the versioned statement did not match, so the happy path stays one statement
+    static void checkRowCount(int rowCount, Object entity, int id, Session session) {
+        if (rowCount == 1) {
+            return;
+        }
+        String entityName = entityName(entity, session);
+        Long matching = session.createQuery(
+                        "select count(e) from " + entityName + " e where e.id = :id", Long.class)
+                .setParameter("id", id)
+                .getSingleResult();
+        String shortName = shortName(entityName);
+        if (matching == 0) {
+            throw new RuntimeException(shortName + " with id " + id + " not found");
+        }
+        throw new OptimisticLockException(
+                shortName + " with id " + id + " was modified by another transaction", null, entity);
+    }
+
+    // The session resolves proxies and subclasses, and unlike getEntityName also accepts Detached entities
+    private static String entityName(Object entity, Session session) {
+        return session.unwrap(SessionImplementor.class).bestGuessEntityName(entity);
+    }
+
+    private static String shortName(String entityName) {
+        return entityName.substring(entityName.lastIndexOf('.') + 1);
+    }
+}
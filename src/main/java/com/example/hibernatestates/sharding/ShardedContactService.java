@@ -0,0 +1,62 @@
+package com.example.hibernatestates.sharding;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.service.ContactService;
+import com.example.hibernatestates.service.ContactView;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+// Contacts live on the shard of their employee, so writes are routed by contact.getEmployee().getId()
+@Service
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardedContactService {
+    private final ContactService contactService;
+    private final ShardedSessionFactories shards;
+
+    public ShardedContactService(ContactService contactService, ShardedSessionFactories shards) {
+        this.contactService = contactService;
+        this.shards = shards;
+    }
+
+    public Contact persistContact(Contact contact) {
+        return shards.inEmployeeShard(employeeId(contact), session -> {
+            contactService.persistContact(contact, session);
+            return contact;
+        });
+    }
+
+    public void updateContactVersioned(Contact contact) {
+        shards.inEmployeeShard(employeeId(contact), session -> {
+            contactService.updateContactVersioned(contact, session);
+            return null;
+        });
+    }
+
+    public void deleteContactVersioned(Contact contact) {
+        shards.inEmployeeShard(employeeId(contact), session -> {
+            contactService.deleteContactVersioned(contact, session);
+            return null;
+        });
+    }
+
+    // Phone numbers are not partitioned, so every shard is asked
+    public Optional<Contact> findByPhoneNumber(String phoneNumber) {
+        return shards.scatterGather(session -> contactService.findByPhoneNumber(phoneNumber, session).stream().toList())
+                .stream()
+                .findFirst();
+    }
+
+    public List<ContactView> getContactViews() {
+        return shards.scatterGather(contactService::getContactViews);
+    }
+
+    private static int employeeId(Contact contact) {
+        if (contact.getEmployee() == null) {
+            throw new IllegalArgumentException("Contact has no employee to route it by");
+        }
+        return contact.getEmployee().getId();
+    }
+}
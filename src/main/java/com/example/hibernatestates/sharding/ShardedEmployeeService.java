@@ -0,0 +1,73 @@
+package com.example.hibernatestates.sharding;
+
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import com.example.hibernatestates.service.EmployeeService;
+import com.example.hibernatestates.service.EmployeeSummary;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Runs EmployeeService operations on the shard that owns the employee id, each in its own session and transaction.
+// Returned entities are Detached
+@Service
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardedEmployeeService {
+    private final EmployeeService employeeService;
+    private final ShardedSessionFactories shards;
+
+    public ShardedEmployeeService(EmployeeService employeeService, ShardedSessionFactories shards) {
+        this.employeeService = employeeService;
+        this.shards = shards;
+    }
+
+    // The employee's contacts are cascaded into the same shard
+    public Employee persistEmployee(Employee employee) {
+        return shards.inNewEmployeeShard(session -> {
+            employeeService.persistEmployee(employee, session);
+            return employee;
+        });
+    }
+
+    public void updateEmployee(Employee employee) {
+        shards.inEmployeeShard(employee.getId(), session -> {
+            employeeService.updateEmployee(employee, session);
+            return null;
+        });
+    }
+
+    public void updateEmployeeVersioned(Employee employee) {
+        shards.inEmployeeShard(employee.getId(), session -> {
+            employeeService.updateEmployeeVersioned(employee, session);
+            return null;
+        });
+    }
+
+    public Employee getEmployeeById(int id, EmployeeFetchPlan fetchPlan) {
+        return shards.inEmployeeShard(id, session -> employeeService.getEmployeeByIdReadOnly(id, fetchPlan, session));
+    }
+
+    public int deleteEmployeesWithContacts(Collection<Integer> ids) {
+        return ids.stream()
+                .collect(Collectors.groupingBy(shards::shardOf))
+                .entrySet().stream()
+                .mapToInt(entry -> shards.inShard(entry.getKey(),
+                        session -> employeeService.deleteEmployeesWithContacts(entry.getValue(), session)))
+                .sum();
+    }
+
+    // Each shard returns its employees in id order, and shard i only holds ids below those of shard i + 1
+    public List<Employee> getEmployees(EmployeeFetchPlan fetchPlan) {
+        return shards.scatterGather(session -> employeeService.getEmployeesReadOnly(fetchPlan, session));
+    }
+
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        List<EmployeeSummary> summaries = shards.scatterGather(employeeService::getEmployeeSummaries);
+        summaries.sort(Comparator.comparingInt(EmployeeSummary::id));
+        return summaries;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.hibernatestates.sharding;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// One SessionFactory per shard, each owning a contiguous range of employee ids: shard i assigns ids from
+// i * rangeSize + 1 up to (i + 1) * rangeSize, so the id alone tells which shard holds an employee and its contacts.
+// The identity columns stop at the end of the range, a full shard fails inserts instead of using the next range
+public class ShardedSessionFactories implements AutoCloseable {
+    private final int rangeSize;
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<SessionFactory> sessionFactories = new ArrayList<>();
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ExecutorService scatterExecutor;
+
+    public ShardedSessionFactories(int shardCount, String urlTemplate, String username, String password,
+                                   String schemaAction, int rangeSize, int poolSize) {
+        if (shardCount <= 0 || rangeSize <= 0 || poolSize <= 0) {
+            throw new IllegalArgumentException("Shard count, range size and pool size must be positive, got "
+                    + shardCount + ", " + rangeSize + " and " + poolSize);
+        }
+        if ((long) shardCount * rangeSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Id ranges of " + shardCount + " shards exceed the integer id space");
+        }
+        this.rangeSize = rangeSize;
+        this.scatterExecutor = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int shard = 0; shard < shardCount; shard++) {
+                HikariDataSource dataSource = dataSource(urlTemplate.replace("{index}", String.valueOf(shard)),
+                        username, password, poolSize);
+                dataSources.add(dataSource);
+                sessionFactories.add(sessionFactory(dataSource, schemaAction));
+                limitIds(shard);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int getShardCount() {
+        return sessionFactories.size();
+    }
+
+    public int shardOf(int employeeId) {
+        int shard = (employeeId - 1) / rangeSize;
+        if (employeeId <= 0 || shard >= sessionFactories.size()) {
+            throw new IllegalArgumentException("Employee id " + employeeId + " is outside every shard range");
+        }
+        return shard;
+    }
+
+    // New employees are spread round-robin, the shard's identity column then assigns an id from its range
+    public <T> T inNewEmployeeShard(Function<Session, T> work) {
+        return inShard(Math.floorMod(nextShard.getAndIncrement(), sessionFactories.size()), work);
+    }
+
+    public <T> T inEmployeeShard(int employeeId, Function<Session, T> work) {
+        return inShard(shardOf(employeeId), work);
+    }
+
+    public <T> T inShard(int shard, Function<Session, T> work) {
+        try (Session session = sessionFactories.get(shard).openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = work.apply(session);
+                transaction.commit();
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Runs the read on every shard in parallel and concatenates the results in shard order
+    public <T> List<T> scatterGather(Function<Session, List<T>> read) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < sessionFactories.size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> inShard(target, read), scatterExecutor));
+        }
+        List<T> results = new ArrayList<>();
+        futures.forEach(future -> results.addAll(future.join()));
+        return results;
+    }
+
+    @Override
+    public void close() {
+        scatterExecutor.shutdownNow();
+        sessionFactories.forEach(SessionFactory::close);
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    // Ids restart at the start of the shard's range only while its tables are empty, a shard that kept its data
+    // from an earlier start carries on from where its identity columns stopped
+    private void limitIds(int shard) {
+        long firstId = (long) shard * rangeSize + 1;
+        long lastId = (long) (shard + 1) * rangeSize;
+        inShard(shard, session -> {
+            boolean empty = session.createNativeQuery(
+                            "select (select count(*) from employees) + (select count(*) from contact)", Long.class)
+                    .getSingleResult() == 0;
+            for (String table : List.of("employees", "contact")) {
+                if (empty) {
+                    session.createNativeMutationQuery("alter table " + table + " alter column id restart with " + firstId)
+                            .executeUpdate();
+                }
+                session.createNativeMutationQuery("alter table " + table + " alter column id set maxvalue " + lastId)
+                        .executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    private static HikariDataSource dataSource(String url, String username, String password, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+
+    // Same mappings and JDBC settings as the main SessionFactory, without the second-level cache. The schema action
+    // is a hibernate.hbm2ddl.auto value, create-drop only suits in-memory shards
+    private static SessionFactory sessionFactory(HikariDataSource dataSource, String schemaAction) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Employee.class)
+                .addAnnotatedClass(Contact.class)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, schemaAction)
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.ORDER_UPDATES, "true")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        configuration.setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy());
+        configuration.getProperties().put(AvailableSettings.DATASOURCE, dataSource);
+        return configuration.buildSessionFactory();
+    }
+}
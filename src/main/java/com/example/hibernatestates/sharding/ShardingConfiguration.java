@@ -0,0 +1,23 @@
+package com.example.hibernatestates.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfiguration {
+    @Bean(destroyMethod = "close")
+    public ShardedSessionFactories shardedSessionFactories(
+            @Value("${sharding.shard-count:2}") int shardCount,
+            @Value("${sharding.url-template:jdbc:h2:mem:shard{index}}") String urlTemplate,
+            @Value("${sharding.username:sa}") String username,
+            @Value("${sharding.password:}") String password,
+            @Value("${sharding.schema-action:create-drop}") String schemaAction,
+            @Value("${sharding.range-size:1000000}") int rangeSize,
+            @Value("${sharding.pool-size:5}") int poolSize) {
+        return new ShardedSessionFactories(shardCount, urlTemplate, username, password, schemaAction, rangeSize,
+                poolSize);
+    }
+}
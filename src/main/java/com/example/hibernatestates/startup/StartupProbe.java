@@ -0,0 +1,55 @@
+package com.example.hibernatestates.startup;
+
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.EmployeeService;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+// With startup.probe.enabled=true the application persists one employee as soon as it has started and logs the
+// time since JVM start, after which HibernateStatesApplication exits. Used by the startup benchmark and to record
+// the class data sharing archive. The property is read at runtime rather than through a condition so the probe
+// survives AOT processing
+@Component
+public class StartupProbe implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(StartupProbe.class);
+    static final String RESULT_PREFIX = "time-to-first-persist-ms=";
+
+    private final boolean enabled;
+    private final SessionFactory sessionFactory;
+    private final EmployeeService employeeService;
+
+    public StartupProbe(@Value("${startup.probe.enabled:false}") boolean enabled, SessionFactory sessionFactory,
+                        EmployeeService employeeService) {
+        this.enabled = enabled;
+        this.sessionFactory = sessionFactory;
+        this.employeeService = employeeService;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Employee employee = new Employee();
+            employee.setName("Startup probe");
+            employeeService.persistEmployee(employee, session);
+            session.flush();
+            session.getTransaction().rollback();
+        }
+        log.info(RESULT_PREFIX + ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.hibernatestates.web;
+
+import com.example.hibernatestates.async.SessionTaskExecutor;
+import com.example.hibernatestates.service.EmployeeExport;
+import com.example.hibernatestates.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/employees")
+public class EmployeeController {
+    private final EmployeeService employeeService;
+    private final SessionTaskExecutor executor;
+    private final ObjectMapper objectMapper;
+    private final Duration exportTimeout;
+
+    public EmployeeController(EmployeeService employeeService, SessionTaskExecutor executor, ObjectMapper objectMapper,
+                              @Value("${employee.export.timeout:30m}") Duration exportTimeout) {
+        this.employeeService = employeeService;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.exportTimeout = exportTimeout;
+    }
+
+    @GetMapping
+    public CompletableFuture<KeysetPage<EmployeeView>> getEmployees(@RequestParam(defaultValue = "0") int afterId,
+                                                                    @RequestParam(defaultValue = "20") int limit) {
+        int pageSize = PageLimits.check(limit);
+        return executor.submit(session -> KeysetPage.of(
+                employeeService.getEmployeesAfter(afterId, pageSize + 1, session).stream()
+                        .map(EmployeeView::of)
+                        .toList(),
+                pageSize, EmployeeView::id));
+    }
+
+    // Runs on the session task workers, so every export counts against the connection bound, and writes straight
+    // to the response while the cursor is read. The response has no length and goes out in chunks as the
+    // generator's buffer fills. Exports can run far longer than other requests, so only this one gets exportTimeout
+    @GetMapping("/export")
+    public DeferredResult<Void> exportEmployees(HttpServletResponse response) {
+        DeferredResult<Void> result = new DeferredResult<>(exportTimeout.toMillis());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        executor.executeStateless(session -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.writeStartArray();
+                employeeService.exportEmployees(employee -> writeEmployee(generator, employee), session);
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to export employees", e);
+            }
+        }).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                result.setResult(null);
+            } else {
+                result.setErrorResult(failure);
+            }
+        });
+        return result;
+    }
+
+    private static void writeEmployee(JsonGenerator generator, EmployeeExport employee) {
+        try {
+            generator.writeObject(employee);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export employee " + employee.id(), e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.hibernatestates.web;
+
+import com.example.hibernatestates.entity.Employee;
+
+public record EmployeeView(int id, String name, int version) {
+    static EmployeeView of(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getName(), employee.getVersion());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.hibernatestates.web;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// nextAfterId is the afterId to request the following page with, or null on the last page
+public record KeysetPage<T>(List<T> items, Integer nextAfterId) {
+    // Builds a page from a result fetched with one row more than the limit, that extra row only tells
+    // whether another page exists
+    static <T> KeysetPage<T> of(List<T> rows, int limit, ToIntFunction<T> id) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(List.copyOf(items), id.applyAsInt(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.hibernatestates.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+final class PageLimits {
+    static final int MAX_LIMIT = 100;
+
+    private PageLimits() {
+    }
+
+    static int check(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + MAX_LIMIT + ", got " + limit);
+        }
+        return limit;
+    }
+}
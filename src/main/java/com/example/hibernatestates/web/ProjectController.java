@@ -0,0 +1,34 @@
+package com.example.hibernatestates.web;
+
+import com.example.hibernatestates.async.SessionTaskExecutor;
+import com.example.hibernatestates.service.ProjectService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/projects")
+public class ProjectController {
+    private final ProjectService projectService;
+    private final SessionTaskExecutor executor;
+
+    public ProjectController(ProjectService projectService, SessionTaskExecutor executor) {
+        this.projectService = projectService;
+        this.executor = executor;
+    }
+
+    @GetMapping
+    public CompletableFuture<KeysetPage<ProjectView>> getProjects(@RequestParam(defaultValue = "0") int afterId,
+                                                                  @RequestParam(defaultValue = "20") int limit,
+                                                                  @RequestParam(required = false) Boolean completed) {
+        int pageSize = PageLimits.check(limit);
+        return executor.submit(session -> KeysetPage.of(
+                projectService.getProjectsAfter(afterId, pageSize + 1, completed, session).stream()
+                        .map(ProjectView::of)
+                        .toList(),
+                pageSize, ProjectView::id));
+    }
+}
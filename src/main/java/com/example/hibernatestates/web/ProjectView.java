@@ -0,0 +1,9 @@
+package com.example.hibernatestates.web;
+
+import com.example.hibernatestates.entity.Project;
+
+public record ProjectView(int id, String name, boolean completed, int version) {
+    static ProjectView of(Project project) {
+        return new ProjectView(project.getId(), project.getName(), project.isCompleted(), project.getVersion());
+    }
+}
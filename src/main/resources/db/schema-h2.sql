@@ -0,0 +1,29 @@
+-- Schema for the fast-startup profile, which skips Hibernate schema generation.
+-- Keep in sync with the entity mappings, FastStartupProfileTest validates it against them.
+
+create table employees (
+    id integer generated by default as identity,
+    name varchar(255),
+    version integer not null,
+    primary key (id)
+);
+
+create table contact (
+    id integer generated by default as identity,
+    phone_number varchar(255),
+    version integer not null,
+    employee_id integer not null,
+    primary key (id)
+);
+
+create table projects (
+    id integer generated by default as identity,
+    completed boolean,
+    name varchar(255),
+    version integer not null,
+    primary key (id)
+);
+
+alter table contact add constraint uk_contact_phone_number unique (phone_number);
+alter table contact add constraint fk_contact_employee foreign key (employee_id) references employees;
+create index idx_projects_completed_id on projects (completed, id);
@@ -0,0 +1,57 @@
+package com.example.hibernatestates;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Starts the application twice on the same file, the restart is what the profile is for
+class DurableProfileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void givenCommittedEmployee_whenApplicationRestarts_thenEmployeeAndContactsAreStillStored() {
+        // Persist and commit an employee with a contact, then stop the application
+        int employeeId;
+        try (ConfigurableApplicationContext context = start()) {
+            try (Session session = context.getBean(SessionFactory.class).openSession()) {
+                session.beginTransaction();
+                Employee employee = new Employee();
+                employee.setName("Durable employee");
+                Contact contact = new Contact();
+                contact.setPhoneNumber("durable_phone");
+                employee.getContacts().add(contact);
+                contact.setEmployee(employee);
+                session.persist(employee);
+                session.getTransaction().commit();
+                employeeId = employee.getId();
+            }
+        }
+
+        // Start the application again on the same file
+        try (ConfigurableApplicationContext context = start();
+             Session session = context.getBean(SessionFactory.class).openSession()) {
+            // Verify that the schema was kept and the committed rows survived the restart
+            Employee employee = session.find(Employee.class, employeeId);
+            assertEquals("Durable employee", employee.getName());
+            assertEquals(1, employee.getContacts().size());
+            assertEquals("durable_phone", employee.getContacts().get(0).getPhoneNumber());
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(HibernateStatesApplication.class)
+                .profiles("durable")
+                .properties("storage.path=" + directory.resolve("hibernate-states"), "server.port=0")
+                .run();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.hibernatestates;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Validation makes the context fail to start when db/schema-h2.sql no longer matches the entity mappings
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:faststartupdb",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+@ActiveProfiles("fast-startup")
+class FastStartupProfileTest {
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenPreGeneratedSchema_whenEntitiesPersisted_thenTheyAreWritten() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Persist an employee with a contact into the tables created by the script
+            Employee employee = new Employee();
+            employee.setName("Fast startup employee");
+            Contact contact = new Contact();
+            contact.setPhoneNumber("fast_startup_phone");
+            employee.getContacts().add(contact);
+            contact.setEmployee(employee);
+            session.persist(employee);
+            session.flush();
+
+            // Verify that both rows were written
+            assertTrue(employee.getId() > 0);
+            assertTrue(contact.getId() > 0);
+            session.getTransaction().rollback();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.hibernatestates;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+// Hibernate statistics are shared by every test using the same session factory and are off unless
+// monitoring is switched on, so they are enabled and cleared only around the measured part of a test
+public final class TestStatistics {
+    private TestStatistics() {
+    }
+
+    // Runs the block with enabled, cleared statistics, then restores whether they were enabled before
+    public static <E extends Exception> void withStatistics(SessionFactory sessionFactory,
+                                                            StatisticsBlock<E> block) throws E {
+        Statistics statistics = sessionFactory.getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            block.run(statistics);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @FunctionalInterface
+    public interface StatisticsBlock<E extends Exception> {
+        void run(Statistics statistics) throws E;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.hibernatestates.async;
+
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Uses its own in-memory database so that every connection of the pool is free for the workers
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:asyncdb")
+class AsyncEmployeeServiceTest {
+    @Autowired
+    AsyncEmployeeService asyncEmployeeService;
+
+    @Autowired
+    SessionTaskExecutor sessionTaskExecutor;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenManyTransientEmployees_whenPersistedAsync_thenEachIsCommittedInItsOwnSession() {
+        // Submit more units of work than there are workers, they wait until all workers were busy at once or a timeout
+        int concurrency = sessionTaskExecutor.getConcurrency();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Employee>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Employee employee = new Employee();
+            employee.setName("Async employee " + i);
+            futures.add(asyncEmployeeService.persistEmployee(employee)
+                    .thenCompose(persisted -> sessionTaskExecutor.submit(session -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            awaitPeak(maxRunning, concurrency);
+                            return session.get(Employee.class, persisted.getId());
+                        } finally {
+                            running.decrementAndGet();
+                        }
+                    })));
+        }
+        List<Employee> employees = futures.stream().map(CompletableFuture::join).toList();
+
+        // Verify that every employee was committed and the workers ran exactly pool size units of work at once
+        assertTrue(employees.stream().allMatch(employee -> employee != null && employee.getId() > 0));
+        assertEquals(concurrency, maxRunning.get());
+
+        // Verify that the returned employees are Detached, their lazy contacts can no longer be loaded
+        Employee loaded = asyncEmployeeService.getEmployeeById(employees.get(0).getId(),
+                EmployeeFetchPlan.EMPLOYEE_ONLY).join();
+        assertEquals("Async employee 0", loaded.getName());
+        assertThrows(LazyInitializationException.class, () -> loaded.getContacts().size());
+    }
+
+    @Test
+    void givenFullQueue_whenSubmitted_thenFutureFailsWithRejection() throws Exception {
+        SessionTaskExecutor executor = new SessionTaskExecutor(sessionFactory, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Occupy the only worker and the only queue slot
+            CompletableFuture<Void> running = executor.execute(session -> awaitQuietly(release));
+            CompletableFuture<Void> queued = executor.execute(session -> {
+            });
+
+            // Verify that the next unit of work is rejected through its future and the others still complete
+            CompletableFuture<Void> rejected = executor.execute(session -> {
+            });
+            CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+            assertTrue(exception.getCause() instanceof RejectedExecutionException);
+            release.countDown();
+            running.join();
+            queued.join();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void givenFailingUnitOfWork_whenSubmitted_thenTransactionIsRolledBack() {
+        // Submit a unit of work that writes an employee and then fails
+        CompletableFuture<Employee> future = sessionTaskExecutor.submit(session -> {
+            Employee employee = new Employee();
+            employee.setName("Rolled back async employee");
+            session.persist(employee);
+            session.flush();
+            throw new IllegalStateException("Failure after flush");
+        });
+
+        // Verify that the failure is reported through the future and nothing has been committed
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        try (Session session = sessionFactory.openSession()) {
+            Long count = session.createQuery(
+                            "select count(e) from Employee e where e.name = 'Rolled back async employee'", Long.class)
+                    .getSingleResult();
+            assertEquals(0L, count);
+        }
+    }
+
+    private static void awaitPeak(AtomicInteger maxRunning, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (maxRunning.get() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
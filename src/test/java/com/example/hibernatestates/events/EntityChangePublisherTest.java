@@ -0,0 +1,130 @@
+package com.example.hibernatestates.events;
+
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.EmployeeService;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class EntityChangePublisherTest {
+    @Autowired
+    EntityChangePublisher entityChangePublisher;
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenSubscribedConsumer_whenTransactionsCommitOrRollBack_thenOnlyCommittedChangesArrive() throws Exception {
+        BlockingQueue<EntityChangeEvent> received = new LinkedBlockingQueue<>();
+        AutoCloseable subscription = entityChangePublisher.subscribe(received::add);
+        try {
+            // Persist an employee and commit
+            Employee employee = new Employee();
+            employee.setName("Published employee");
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                employeeService.persistEmployee(employee, session);
+                session.getTransaction().commit();
+            }
+
+            // Verify that the insert is delivered after the commit
+            EntityChangeEvent inserted = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(inserted);
+            assertEquals(new EntityChangeEvent(EntityChangeType.INSERT, Employee.class, employee.getId(), 0), inserted);
+
+            // Change the employee and roll back, nothing is published
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                session.get(Employee.class, employee.getId()).setName("Rolled back name");
+                session.flush();
+                session.getTransaction().rollback();
+            }
+            assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+
+            // Change the employee, commit, then delete it and commit
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                session.get(Employee.class, employee.getId()).setName("Committed name");
+                session.getTransaction().commit();
+            }
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                session.remove(session.get(Employee.class, employee.getId()));
+                session.getTransaction().commit();
+            }
+            assertEquals(new EntityChangeEvent(EntityChangeType.UPDATE, Employee.class, employee.getId(), 1),
+                    received.poll(5, TimeUnit.SECONDS));
+            assertEquals(EntityChangeType.DELETE, received.poll(5, TimeUnit.SECONDS).type());
+        } finally {
+            subscription.close();
+        }
+        assertFalse(entityChangePublisher.hasConsumers());
+    }
+
+    @Test
+    void givenLastConsumerUnsubscribed_whenIdle_thenDispatcherParksUntilNextSubscribe() throws Exception {
+        BlockingQueue<EntityChangeEvent> received = new LinkedBlockingQueue<>();
+        entityChangePublisher.subscribe(received::add).close();
+
+        // Verify that the dispatcher waits without a timeout once nobody is subscribed
+        Thread dispatcher = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("entity-change-dispatcher"))
+                .findFirst()
+                .orElseThrow();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, dispatcher.getState());
+
+        // Subscribe again and verify that the dispatcher wakes up and delivers the next commit
+        AutoCloseable subscription = entityChangePublisher.subscribe(received::add);
+        try {
+            Employee employee = new Employee();
+            employee.setName("Employee after idle");
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                employeeService.persistEmployee(employee, session);
+                session.getTransaction().commit();
+            }
+            EntityChangeEvent inserted = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(inserted);
+            assertEquals(employee.getId(), inserted.id());
+        } finally {
+            subscription.close();
+        }
+    }
+
+    @Test
+    void givenFullRingBuffer_whenOffered_thenEventIsRejectedInsteadOfBlocking() {
+        EntityChangeRingBuffer buffer = new EntityChangeRingBuffer(4);
+        EntityChangeEvent event = new EntityChangeEvent(EntityChangeType.INSERT, Employee.class, 1, 0);
+
+        // Fill the buffer, the next offer fails immediately
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertTrue(buffer.offer(event));
+        }
+        assertFalse(buffer.offer(event));
+
+        // Draining one slot makes room for exactly one more event
+        assertEquals(event, buffer.poll());
+        assertTrue(buffer.offer(event));
+        assertFalse(buffer.offer(event));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.hibernatestates.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Uses its own in-memory database because the workload commits the employees and projects it creates
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loaddb",
+        "load.threads=4",
+        "load.warmup=200ms",
+        "load.duration=1s",
+        "load.lookup-window=5",
+        "load.projects=10",
+        "load.output=target/load-report-test.json",
+        "load.exit=false"})
+@ActiveProfiles("load")
+class LoadTestRunnerTest {
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void givenLoadProfile_whenApplicationStarts_thenReportIsWrittenForEveryOperation() throws Exception {
+        // The runner has already driven the workload during startup, read the report it wrote
+        JsonNode report = objectMapper.readTree(Path.of("target/load-report-test.json").toFile());
+
+        // Verify that every operation was measured and the totals add up
+        assertEquals(4, report.get("threads").asInt());
+        long total = 0;
+        for (LoadOperation operation : LoadOperation.values()) {
+            JsonNode statistics = report.get("byOperation").get(operation.name());
+            assertTrue(statistics.get("count").asLong() > 0, operation + " was not measured");
+            assertTrue(statistics.get("p50Micros").asLong() <= statistics.get("p99Micros").asLong());
+            assertTrue(statistics.get("p99Micros").asLong() <= statistics.get("maxMicros").asLong());
+            total += statistics.get("count").asLong();
+        }
+        assertEquals(total, report.get("operations").asLong());
+
+        // Verify that connection pool statistics were collected for the measured window
+        assertTrue(report.get("connectionPool").get("acquisitions").asLong() > 0);
+    }
+}
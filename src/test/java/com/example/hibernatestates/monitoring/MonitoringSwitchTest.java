@@ -0,0 +1,93 @@
+package com.example.hibernatestates.monitoring;
+
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import com.example.hibernatestates.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Tests disable JMX by default, this one turns it on with its own database and is closed afterwards so that it
+// neither keeps the MBeans registered nor shares a schema with the cached contexts
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:jmxdb", "spring.jmx.enabled=true"})
+@DirtiesContext
+class MonitoringSwitchTest {
+    @Autowired
+    MonitoringSwitch monitoringSwitch;
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenMonitoringEnabled_whenServiceMethodCalled_thenLatencyAndStatisticsAreRecorded() {
+        boolean monitoringEnabled = monitoringSwitch.isEnabled();
+        monitoringSwitch.setEnabled(true);
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Call a service method while monitoring is on
+            Employee employee = new Employee();
+            employee.setName("Monitored employee");
+            employeeService.persistEmployee(employee, session);
+
+            // Verify that the call was timed and that Hibernate collects statistics
+            Timer timer = meterRegistry.find(ServiceLatencyAspect.TIMER_NAME)
+                    .tag("class", "EmployeeService")
+                    .tag("method", "persistEmployee")
+                    .timer();
+            assertNotNull(timer);
+            assertEquals(1, timer.count());
+            assertTrue(sessionFactory.getStatistics().isStatisticsEnabled());
+            assertNotNull(meterRegistry.find("hibernate.flushes").functionCounter());
+
+            // Switch monitoring off, further calls are no longer timed
+            monitoringSwitch.setEnabled(false);
+            employeeService.getEmployeeById(employee.getId(), EmployeeFetchPlan.EMPLOYEE_ONLY, session);
+            assertFalse(sessionFactory.getStatistics().isStatisticsEnabled());
+            assertEquals(0, meterRegistry.find(ServiceLatencyAspect.TIMER_NAME)
+                    .tag("method", "getEmployeeById")
+                    .timers()
+                    .size());
+            session.getTransaction().rollback();
+        } finally {
+            monitoringSwitch.setEnabled(monitoringEnabled);
+        }
+    }
+
+    @Test
+    void givenMonitoringEndpoint_whenUpdatedOverJmx_thenSwitchIsFlipped() throws Exception {
+        boolean monitoringEnabled = monitoringSwitch.isEnabled();
+        try {
+            // Call the write operation of the endpoint through the platform MBean server
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = server.queryNames(new ObjectName("org.springframework.boot:type=Endpoint,name=Monitoring,*"),
+                    null).iterator().next();
+            server.invoke(name, "update", new Object[]{true}, new String[]{Boolean.class.getName()});
+
+            // Verify that the switch was turned on
+            assertTrue(monitoringSwitch.isEnabled());
+        } finally {
+            monitoringSwitch.setEnabled(monitoringEnabled);
+        }
+    }
+}
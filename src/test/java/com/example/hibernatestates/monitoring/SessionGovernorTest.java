@@ -0,0 +1,143 @@
+package com.example.hibernatestates.monitoring;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.ContactService;
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import com.example.hibernatestates.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"session.governor.max-entities=20", "session.governor.collection-warn-size=3"})
+class SessionGovernorTest {
+    @Autowired
+    SessionGovernor sessionGovernor;
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    ContactService contactService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    MonitoringSwitch monitoringSwitch;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenLoopOfPersistCalls_whenLimitReached_thenSessionIsFlushedAndCleared() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            double clearsBefore = meterRegistry.counter(SessionGovernor.CLEARS_COUNTER).count();
+
+            Employee employee = new Employee();
+            employee.setName("Governed employee");
+            employeeService.persistEmployee(employee, session);
+
+            // Call the method in a loop with a checkpoint after each call, the contacts stay managed until the
+            // governor steps in
+            for (int i = 0; i < 50; i++) {
+                Contact contact = new Contact();
+                contact.setPhoneNumber("governed_phone_" + i);
+                contact.setEmployee(employee);
+                contactService.persistContact(contact, session);
+                sessionGovernor.checkpoint(session);
+
+                // Verify that the persistence context never grows past the limit
+                assertTrue(session.getStatistics().getEntityCount() < 20);
+            }
+
+            // Verify that the session was cleared along the way and that every contact has been written
+            assertTrue(meterRegistry.counter(SessionGovernor.CLEARS_COUNTER).count() - clearsBefore >= 2);
+            assertTrue(sessionGovernor.getHighWaterMark() >= 20);
+            Long stored = session.createQuery(
+                            "select count(c) from Contact c where c.phoneNumber like 'governed_phone_%'", Long.class)
+                    .getSingleResult();
+            assertEquals(50L, stored);
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenEmployeeWithManyContacts_whenPersisted_thenLargeCollectionIsReported() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            double reportedBefore = meterRegistry.counter(SessionGovernor.LARGE_COLLECTIONS_COUNTER).count();
+
+            // Create an employee with more contacts than the warning size
+            Employee employee = new Employee();
+            employee.setName("Employee with many contacts");
+            for (int i = 0; i < 5; i++) {
+                Contact contact = new Contact();
+                contact.setPhoneNumber("many_contacts_phone_" + i);
+                employee.getContacts().add(contact);
+                contact.setEmployee(employee);
+            }
+            employeeService.persistEmployee(employee, session);
+
+            // Verify that the collection is reported once, even when checked again
+            sessionGovernor.checkpoint(session);
+            sessionGovernor.checkpoint(session);
+            assertEquals(reportedBefore + 1, meterRegistry.counter(SessionGovernor.LARGE_COLLECTIONS_COUNTER).count());
+            assertTrue(meterRegistry.get(SessionGovernor.HIGH_WATER_MARK_GAUGE).gauge().value() >= 6);
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenEntityLoadedEarlier_whenServiceCallsPassLimitWithoutCheckpoint_thenSessionIsNotCleared() {
+        // Store an employee to load later in the unit of work
+        Employee employee = new Employee();
+        employee.setName("Governed loaded employee");
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.persist(employee);
+            session.getTransaction().commit();
+        }
+
+        int trackedBefore = sessionGovernor.getTrackedSessionCount();
+        boolean monitoringEnabled = monitoringSwitch.isEnabled();
+        monitoringSwitch.setEnabled(true);
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            double clearsBefore = meterRegistry.counter(SessionGovernor.CLEARS_COUNTER).count();
+            Employee loaded = employeeService.getEmployeeById(employee.getId(), EmployeeFetchPlan.EMPLOYEE_ONLY, session);
+
+            // Call the method in a loop without a checkpoint, the session grows past the limit
+            for (int i = 0; i < 25; i++) {
+                Contact contact = new Contact();
+                contact.setPhoneNumber("governed_loaded_phone_" + i);
+                contact.setEmployee(loaded);
+                contactService.persistContact(contact, session);
+            }
+
+            // Verify that the calls were observed but the session was left alone, so the employee is still managed
+            assertEquals(trackedBefore + 1, sessionGovernor.getTrackedSessionCount());
+            assertEquals(clearsBefore, meterRegistry.counter(SessionGovernor.CLEARS_COUNTER).count());
+            assertTrue(session.contains(loaded));
+
+            // Change the employee, the change is written by the commit
+            loaded.setName("Governed loaded employee changed");
+            session.getTransaction().commit();
+        } finally {
+            monitoringSwitch.setEnabled(monitoringEnabled);
+        }
+
+        // Verify that the governor dropped the state of the closed session
+        assertEquals(trackedBefore, sessionGovernor.getTrackedSessionCount());
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("Governed loaded employee changed", session.find(Employee.class, employee.getId()).getName());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.hibernatestates.monitoring;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import com.example.hibernatestates.service.EmployeeService;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A zero threshold logs every statement as slow
+@SpringBootTest(properties = {"sql.log.enabled=true", "sql.log.slow-threshold=0ms", "sql.log.sample-rate=0"})
+class SqlLogTest {
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SqlLog.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attachAppender() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void givenStatements_whenExecuted_thenBindsRowsAndCallerAreLogged() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Employee employee = new Employee();
+            employee.setName("Logged employee");
+            for (int i = 0; i < 2; i++) {
+                Contact contact = new Contact();
+                contact.setPhoneNumber("logged_phone_" + i);
+                employee.getContacts().add(contact);
+                contact.setEmployee(employee);
+            }
+
+            // Call the methods, the identity inserts run during persist and the query reads every employee
+            employeeService.persistEmployee(employee, session);
+            int employees = employeeService.getEmployees(EmployeeFetchPlan.EMPLOYEE_ONLY, session).size();
+            session.getTransaction().rollback();
+
+            // Verify that the inserts were logged with their binds, one row each, and the service method
+            List<String> messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+            String contactInsert = messages.stream().filter(message -> message.contains("insert into contact "))
+                    .findFirst().orElseThrow();
+            assertTrue(contactInsert.contains("rows=1 binds=3"), contactInsert);
+            assertTrue(contactInsert.contains("slow=true caller=EmployeeService.persistEmployee"), contactInsert);
+
+            // Verify that the query was logged with the rows it returned
+            String select = messages.stream().filter(message -> message.contains("from employees"))
+                    .reduce((first, last) -> last).orElseThrow();
+            assertTrue(select.contains("rows=" + employees + " binds=0"), select);
+            assertFalse(select.contains("caller=unknown"), select);
+            assertEquals(2, messages.stream().filter(message -> message.contains("insert into contact ")).count());
+        }
+    }
+
+    @Test
+    void givenSqlLogEnabled_whenStarted_thenEntriesGoThroughNonBlockingAsyncAppender() {
+        // Verify that the logger writes only through its own async appender, which drops entries when full
+        AsyncAppender async = (AsyncAppender) logger.getAppender("SQL_LOG");
+        assertTrue(async.isStarted());
+        assertTrue(async.isNeverBlock());
+        assertFalse(logger.isAdditive());
+
+        // Verify that it forwards to the root logger's console appender
+        assertNotNull(async.getAppender("CONSOLE"));
+    }
+}
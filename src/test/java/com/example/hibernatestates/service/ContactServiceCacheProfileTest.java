@@ -0,0 +1,61 @@
+package com.example.hibernatestates.service;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static com.example.hibernatestates.TestStatistics.withStatistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Shares the cache profile context and database with ProjectServiceCacheProfileTest
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cachedb")
+@ActiveProfiles("cache")
+class ContactServiceCacheProfileTest {
+    @Autowired
+    ContactService contactService;
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenResolvedPhoneNumber_whenLookedUpInNewSession_thenNoStatementIsExecuted() {
+        // Create an employee with a contact and commit them
+        Employee employee = new Employee();
+        employee.setName("Cached caller");
+        Contact contact = new Contact();
+        contact.setPhoneNumber("555-0199");
+        employee.getContacts().add(contact);
+        contact.setEmployee(employee);
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            employeeService.persistEmployee(employee, session);
+            session.getTransaction().commit();
+        }
+
+        // Resolve the number once, which puts the natural id and the contact into the second-level cache
+        try (Session session = sessionFactory.openSession()) {
+            assertTrue(contactService.findByPhoneNumber("555 0199", session).isPresent());
+        }
+
+        withStatistics(sessionFactory, statistics -> {
+            try (Session session = sessionFactory.openSession()) {
+                // Call the method again in a fresh session with an empty persistence context
+                Contact found = contactService.findByPhoneNumber("(555) 0199", session).orElseThrow();
+
+                // Verify that both the natural id and the contact came from the cache
+                assertEquals(contact.getId(), found.getId());
+                assertEquals(0, statistics.getPrepareStatementCount());
+                assertTrue(statistics.getNaturalIdCacheHitCount() >= 1);
+            }
+        });
+    }
+}
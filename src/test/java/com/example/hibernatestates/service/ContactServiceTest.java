@@ -3,13 +3,20 @@ package com.example.hibernatestates.service;
 import com.example.hibernatestates.entity.Contact;
 import com.example.hibernatestates.entity.Employee;
 import jakarta.persistence.PersistenceException;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -18,6 +25,9 @@ class ContactServiceTest {
     @Autowired
     ContactService contactService;
 
+    @Autowired
+    EmployeeService employeeService;
+
     @Autowired
     SessionFactory sessionFactory;
 
@@ -136,4 +146,167 @@ class ContactServiceTest {
         // After deletion, check that the Contact object is no longer in the Hibernate session, and there's no database record with its identifier
         assertFalse(session.contains(contact));
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteContactVersioned_shouldRemoveRow_whenVersionMatches() {
+        // Create a session and start a transaction, bulk statements require one
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create an Employee with a Contact, write both to the database and clear the session
+            Employee employee = new Employee();
+            employee.setName("Employee");
+            session.persist(employee);
+            Contact contact = new Contact();
+            contact.setPhoneNumber("To be deleted versioned");
+            contact.setEmployee(employee);
+            session.persist(contact);
+            session.flush();
+            session.clear();
+
+            // Call the method to delete the Detached contact with a version-checked DELETE
+            contactService.deleteContactVersioned(contact, session);
+
+            // Verify that there's no database record with its identifier
+            assertNull(session.find(Contact.class, contact.getId()));
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void findContact_shouldNotLoadEmployee_whenEmployeeIsNotAccessed() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create an Employee with a Contact, write both to the database and clear the session
+            Employee employee = new Employee();
+            employee.setName("Employee");
+            session.persist(employee);
+            Contact contact = new Contact();
+            contact.setPhoneNumber("lazy_employee");
+            contact.setEmployee(employee);
+            session.persist(contact);
+            session.flush();
+            session.clear();
+
+            // Load the Contact again, its employee is only a proxy until it is accessed
+            Contact loaded = session.find(Contact.class, contact.getId());
+            assertFalse(Hibernate.isInitialized(loaded.getEmployee()));
+            assertEquals(employee.getId(), loaded.getEmployee().getId());
+            assertFalse(Hibernate.isInitialized(loaded.getEmployee()));
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void importContacts_shouldInsertEveryRow_whenEmployeesExist() {
+        // Create and commit an Employee the imported contacts refer to
+        Employee employee = new Employee();
+        employee.setName("Imported employee");
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.persist(employee);
+            session.getTransaction().commit();
+        }
+
+        // Build a CSV with a header and a few phone numbers for that employee
+        StringBuilder csv = new StringBuilder("employee_id,phone_number\n");
+        for (int i = 0; i < 7; i++) {
+            csv.append(employee.getId()).append(",imported_phone_").append(i).append('\n');
+        }
+
+        // Call the method to stream the rows into the database through a StatelessSession
+        ContactImportResult result;
+        try (StatelessSession statelessSession = sessionFactory.openStatelessSession()) {
+            statelessSession.beginTransaction();
+            result = contactService.importContacts(new StringReader(csv.toString()), 3, statelessSession);
+            statelessSession.getTransaction().commit();
+        }
+
+        // Verify that every row was written and reported, the header is not counted
+        assertEquals(7, result.rows());
+        try (Session session = sessionFactory.openSession()) {
+            Long imported = session.createQuery(
+                            "select count(c) from Contact c where c.employee.id = :id", Long.class)
+                    .setParameter("id", employee.getId())
+                    .getSingleResult();
+            assertEquals(7L, imported);
+        }
+    }
+
+    @Test
+    void importContacts_shouldReportLine_whenRowIsMalformed() {
+        try (StatelessSession statelessSession = sessionFactory.openStatelessSession()) {
+            statelessSession.beginTransaction();
+
+            // The second line has no separator between employee id and phone number
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> contactService.importContacts(new StringReader("employee_id,phone_number\n42"), statelessSession));
+            assertEquals("Line 2 is not in employee_id,phone_number format", exception.getMessage());
+            statelessSession.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void getContactViews_shouldReturnPhoneAndEmployeeName_withoutManagedEntities() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create an employee with a contact, write them and clear the session
+            Employee employee = new Employee();
+            employee.setName("View employee");
+            Contact contact = new Contact();
+            contact.setPhoneNumber("view_phone");
+            employee.getContacts().add(contact);
+            contact.setEmployee(employee);
+            session.persist(employee);
+            session.flush();
+            session.clear();
+
+            // Call the method to read the contact views
+            List<ContactView> views = contactService.getContactViews(session);
+
+            // Verify that the view carries the joined employee name and nothing was loaded into the session
+            assertTrue(views.contains(new ContactView("view_phone", "View employee")));
+            assertEquals(0, session.getStatistics().getEntityCount());
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void findByPhoneNumber_shouldResolveContact_whenNumberIsFormattedDifferently() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create an Employee with a Contact whose phone number is written with separators
+            Employee employee = new Employee();
+            employee.setName("Caller");
+            Contact contact = new Contact();
+            contact.setPhoneNumber("+1 (555) 010-2030");
+            employee.getContacts().add(contact);
+            contact.setEmployee(employee);
+            employeeService.persistEmployee(employee, session);
+            session.flush();
+            session.clear();
+
+            // Call the method with the same number formatted another way
+            Contact found = contactService.findByPhoneNumber("+1.555.010.2030", session).orElseThrow();
+
+            // Verify that the normalized number resolved the contact, and an unknown number resolves nothing
+            assertEquals(contact.getId(), found.getId());
+            assertEquals("+15550102030", found.getPhoneNumber());
+            assertEquals(employee.getId(), found.getEmployee().getId());
+            assertTrue(contactService.findByPhoneNumber("+1 555 000 0000", session).isEmpty());
+
+            // Verify that the natural id is unique
+            Contact duplicate = new Contact();
+            duplicate.setPhoneNumber("+15550102030");
+            duplicate.setEmployee(session.getReference(Employee.class, employee.getId()));
+            assertThrows(PersistenceException.class, () -> {
+                session.persist(duplicate);
+                session.flush();
+            });
+            session.getTransaction().rollback();
+        }
+    }
+}
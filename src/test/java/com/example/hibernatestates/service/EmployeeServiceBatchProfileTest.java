@@ -0,0 +1,109 @@
+package com.example.hibernatestates.service;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.hibernatestates.TestStatistics.withStatistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Uses its own in-memory database, the "batch" profile generates a different schema
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batchdb")
+@ActiveProfiles("batch")
+class EmployeeServiceBatchProfileTest {
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenBatchProfile_whenBootstrapped_thenIdsComeFromPooledSequences() {
+        SessionFactoryImplementor factory = sessionFactory.unwrap(SessionFactoryImplementor.class);
+
+        // IDENTITY columns disable insert batching, so every entity must use a sequence instead
+        for (Class<?> entityClass : List.of(Employee.class, Contact.class)) {
+            assertInstanceOf(SequenceStyleGenerator.class,
+                    factory.getMappingMetamodel().getEntityDescriptor(entityClass).getIdentifierGenerator());
+        }
+    }
+
+    @Test
+    void givenTransientEmployees_whenPersisted_thenIdsAreAssignedWithoutInsert() {
+        // Create a session and start a transaction
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            Employee employee = new Employee();
+            employee.setName("Sequence employee");
+            Contact contact = new Contact();
+            contact.setPhoneNumber("sequence_phone");
+            employee.getContacts().add(contact);
+            contact.setEmployee(employee);
+
+            // Persisting with a sequence assigns the identifier without sending the INSERT yet
+            employeeService.persistEmployee(employee, session);
+            assertFalse(employee.getId() == 0);
+            assertFalse(contact.getId() == 0);
+
+            // Batch persist the rest, the cascaded contacts are written in the same ordered batches
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < 120; i++) {
+                Employee batchEmployee = new Employee();
+                batchEmployee.setName("Sequence employee " + i);
+                employees.add(batchEmployee);
+            }
+            employeeService.persistEmployees(employees, session);
+
+            Long storedEmployees = session.createQuery(
+                            "select count(e) from Employee e where e.name like 'Sequence employee%'", Long.class)
+                    .getSingleResult();
+            assertEquals(121L, storedEmployees);
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenManyEmployeesWithContacts_whenPersisted_thenInsertsAreSentInJdbcBatches() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create 500 employees with one contact each, 1000 rows in total
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                Employee employee = new Employee();
+                employee.setName("Batched employee " + i);
+                Contact contact = new Contact();
+                contact.setPhoneNumber("batched_phone_" + i);
+                employee.getContacts().add(contact);
+                contact.setEmployee(employee);
+                employees.add(employee);
+            }
+
+            withStatistics(sessionFactory, statistics -> {
+                // Call the method to persist them, the cascaded contacts are written in the same flushes
+                employeeService.persistEmployees(employees, session);
+                session.flush();
+
+                // Verify that far fewer statements were prepared than rows were inserted, sequence calls included
+                assertEquals(1000, statistics.getEntityInsertCount());
+                assertTrue(statistics.getPrepareStatementCount() <= 100,
+                        "Prepared " + statistics.getPrepareStatementCount() + " statements for 1000 rows");
+            });
+            session.getTransaction().rollback();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.hibernatestates.service;
 
 import com.example.hibernatestates.entity.Contact;
 import com.example.hibernatestates.entity.Employee;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
@@ -11,8 +12,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.example.hibernatestates.TestStatistics.withStatistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -115,4 +120,323 @@ class EmployeeServiceTest {
         assertFalse(session.contains(employeeAfter));
         assertTrue(session.contains(employeeBefore));
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenEmployeesInEachState_whenSaved_thenMatchingTransitionRunsWithoutExistenceQuery() {
+        // Store an employee and change it after its session is closed, making it a modified Detached instance
+        Employee detached = new Employee();
+        detached.setName("Saved before");
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.persist(detached);
+            session.getTransaction().commit();
+        }
+        detached.setName("Saved after");
+
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Employee transientEmployee = new Employee();
+            transientEmployee.setName("Saved transient");
+
+            withStatistics(sessionFactory, statistics -> {
+                // Call the method for a Transient and a Detached employee, then again for the now Persistent ones
+                assertSame(transientEmployee, employeeService.save(transientEmployee, session));
+                assertSame(detached, employeeService.save(detached, session));
+                assertSame(detached, employeeService.save(detached, session));
+
+                // Verify that only the insert ran, the detached employee was reattached without being loaded
+                assertEquals(1, statistics.getPrepareStatementCount());
+                assertTrue(session.contains(transientEmployee));
+                assertTrue(session.contains(detached));
+            });
+            session.getTransaction().commit();
+        }
+
+        // Verify that the change made while detached was written
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("Saved after", session.find(Employee.class, detached.getId()).getName());
+        }
+    }
+
+    @Test
+    void givenDetachedEmployeeWhoseRowIsManaged_whenSaved_thenItIsMergedIntoManagedInstance() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Employee managed = new Employee();
+            managed.setName("Merge target");
+            session.persist(managed);
+
+            // Create another instance with the same identifier and a new name
+            Employee detached = new Employee();
+            detached.setId(managed.getId());
+            detached.setName("Merged name");
+
+            // Call the method, the managed instance takes the state of the detached one
+            Employee saved = employeeService.save(detached, session);
+
+            // Verify that the managed instance is returned and holds the new name
+            assertSame(managed, saved);
+            assertEquals("Merged name", managed.getName());
+            assertFalse(session.contains(detached));
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenRemovedEmployee_whenSaved_thenRemovalIsCancelled() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Employee employee = new Employee();
+            employee.setName("Removal cancelled");
+            session.persist(employee);
+            session.flush();
+
+            // Remove the employee without flushing, then call the method
+            session.remove(employee);
+            employeeService.save(employee, session);
+
+            // Verify that the employee is Persistent again and its row survives the flush
+            assertEquals(EntityState.PERSISTENT, EntityStateInspector.stateOf(employee, session));
+            session.flush();
+            assertNotNull(session.createQuery("from Employee e where e.id = :id", Employee.class)
+                    .setParameter("id", employee.getId())
+                    .uniqueResult());
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenTransientEmployeesWithContacts_whenPersistedInBatches_thenAllAreStoredAndDetached() {
+        // Create a session and start a transaction, flushing requires one
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create more employees than fit in a single batch, each one with a contact
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                Employee employee = new Employee();
+                employee.setName("Batch employee " + i);
+                Contact contact = new Contact();
+                contact.setPhoneNumber("batch_phone_" + i);
+                employee.getContacts().add(contact);
+                contact.setEmployee(employee);
+                employees.add(employee);
+            }
+
+            // Call the method to persist the employees in batches of 10, flushing and clearing after each batch
+            employeeService.persistEmployees(employees, 10, session);
+
+            // Verify that the session was cleared, so the employees are now Detached
+            assertFalse(session.contains(employees.get(0)));
+            assertEquals(0, session.getStatistics().getEntityCount());
+
+            // Verify that every employee and cascaded contact has been written
+            Long storedContacts = session.createQuery(
+                            "select count(c) from Contact c where c.phoneNumber like 'batch_phone_%'", Long.class)
+                    .getSingleResult();
+            assertEquals(25L, storedContacts);
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenDetachedEmployeeWithChangedName_whenUpdatedVersioned_thenVersionShouldIncrease() {
+        // Create a session and start a transaction, bulk statements require one
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create an Employee entity, write it with the name "Name_before" and detach it
+            Employee employee = new Employee();
+            employee.setName("Name_before");
+            session.persist(employee);
+            session.flush();
+            session.detach(employee);
+            int versionBefore = employee.getVersion();
+
+            // Change the Detached employee and call the method to write it without loading it first
+            employee.setName("Name_after");
+            employeeService.updateEmployeeVersioned(employee, session);
+
+            // Verify that the row has been updated and the version has been incremented
+            Employee stored = session.find(Employee.class, employee.getId());
+            assertEquals("Name_after", stored.getName());
+            assertEquals(versionBefore + 1, stored.getVersion());
+            assertEquals(versionBefore + 1, employee.getVersion());
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenEmployeesWithContacts_whenLoadedWithContactsPlan_thenContactsComeInOneStatement() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create employees with two contacts each, write them and clear the session
+            for (int i = 0; i < 5; i++) {
+                Employee employee = new Employee();
+                employee.setName("Fetch plan employee " + i);
+                for (int j = 0; j < 2; j++) {
+                    Contact contact = new Contact();
+                    contact.setPhoneNumber("fetch_phone_" + i + "_" + j);
+                    employee.getContacts().add(contact);
+                    contact.setEmployee(employee);
+                }
+                employeeService.persistEmployee(employee, session);
+            }
+            session.flush();
+            session.clear();
+
+            withStatistics(sessionFactory, statistics -> {
+                // Call the method to load employees together with their contacts and walk every collection
+                List<Employee> employees = employeeService.getEmployees(EmployeeFetchPlan.EMPLOYEE_WITH_CONTACTS, session);
+                employees.forEach(employee -> employee.getContacts().size());
+
+                // Verify that the contacts were fetched by the same statement instead of one per employee
+                assertTrue(employees.stream().allMatch(employee -> Hibernate.isInitialized(employee.getContacts())));
+                assertEquals(1, statistics.getPrepareStatementCount());
+            });
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenEmployeesWithContacts_whenLoadedWithEmployeeOnlyPlan_thenContactsAreBatchFetched() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create employees with a contact each, write them and clear the session
+            for (int i = 0; i < 5; i++) {
+                Employee employee = new Employee();
+                employee.setName("Batch fetch employee " + i);
+                Contact contact = new Contact();
+                contact.setPhoneNumber("batch_fetch_phone_" + i);
+                employee.getContacts().add(contact);
+                contact.setEmployee(employee);
+                employeeService.persistEmployee(employee, session);
+            }
+            session.flush();
+            session.clear();
+
+            withStatistics(sessionFactory, statistics -> {
+                // Call the method to load employees only, the contacts stay uninitialized
+                List<Employee> employees = employeeService.getEmployees(EmployeeFetchPlan.EMPLOYEE_ONLY, session);
+                assertFalse(Hibernate.isInitialized(employees.get(0).getContacts()));
+
+                // Walking every collection initializes them in batches instead of one query per employee
+                employees.forEach(employee -> employee.getContacts().size());
+                assertTrue(statistics.getPrepareStatementCount() < employees.size() + 1);
+            });
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenEmployeesLoadedReadOnly_whenChangedAndFlushed_thenNothingIsWritten() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create employees, write them and clear the session
+            for (int i = 0; i < 5; i++) {
+                Employee employee = new Employee();
+                employee.setName("Read-only employee " + i);
+                employeeService.persistEmployee(employee, session);
+            }
+            session.flush();
+            session.clear();
+
+            // Call the method to load the employees in read-only mode
+            List<Employee> employees = employeeService.getEmployeesReadOnly(EmployeeFetchPlan.EMPLOYEE_ONLY, session);
+            assertTrue(employees.stream().allMatch(session::isReadOnly));
+
+            withStatistics(sessionFactory, statistics -> {
+                // Change every loaded employee and flush the session
+                employees.forEach(employee -> employee.setName("Changed"));
+                session.flush();
+
+                // Verify that the read-only employees were skipped by dirty checking
+                assertEquals(0, statistics.getEntityUpdateCount());
+            });
+
+            // Verify that a read-only lookup by id fails the same way as a regular one
+            assertThrows(RuntimeException.class,
+                    () -> employeeService.getEmployeeByIdReadOnly(-1, EmployeeFetchPlan.EMPLOYEE_ONLY, session));
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenManagedEmployeesWithContacts_whenDeletedInBulk_thenRowsAreGoneAndEntitiesDetached() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create employees with two contacts each and one more employee that must survive
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Employee employee = new Employee();
+                employee.setName("Bulk delete employee " + i);
+                for (int j = 0; j < 2; j++) {
+                    Contact contact = new Contact();
+                    contact.setPhoneNumber("bulk_delete_phone_" + i + "_" + j);
+                    employee.getContacts().add(contact);
+                    contact.setEmployee(employee);
+                }
+                employeeService.persistEmployee(employee, session);
+                employees.add(employee);
+            }
+            Employee survivor = employees.remove(3);
+            List<Integer> ids = employees.stream().map(Employee::getId).toList();
+
+            // Call the method to delete the employees and their contacts with set-based statements
+            int deleted = employeeService.deleteEmployeesWithContacts(ids, session);
+
+            // Verify that the rows are gone and the managed instances have been detached
+            assertEquals(3, deleted);
+            assertTrue(employees.stream().noneMatch(session::contains));
+            assertTrue(employees.stream().flatMap(employee -> employee.getContacts().stream()).noneMatch(session::contains));
+            assertNull(session.find(Employee.class, ids.get(0)));
+            Long remainingContacts = session.createQuery(
+                            "select count(c) from Contact c where c.phoneNumber like 'bulk_delete_phone_%'", Long.class)
+                    .getSingleResult();
+            assertEquals(2L, remainingContacts);
+            assertTrue(session.contains(survivor));
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenEmployeesWithContacts_whenSummariesRequested_thenCountsComeWithoutManagedEntities() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create employees with a growing number of contacts, write them and clear the session
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Employee employee = new Employee();
+                employee.setName("Summary employee " + i);
+                for (int j = 0; j < i; j++) {
+                    Contact contact = new Contact();
+                    contact.setPhoneNumber("summary_phone_" + i + "_" + j);
+                    employee.getContacts().add(contact);
+                    contact.setEmployee(employee);
+                }
+                employeeService.persistEmployee(employee, session);
+                ids.add(employee.getId());
+            }
+            session.flush();
+            session.clear();
+
+            // Call the method to read the summaries
+            List<EmployeeSummary> summaries = employeeService.getEmployeeSummaries(session).stream()
+                    .filter(summary -> ids.contains(summary.id()))
+                    .toList();
+
+            // Verify the counts, including the employee without contacts, and that nothing was loaded into the session
+            assertEquals(List.of(
+                    new EmployeeSummary(ids.get(0), "Summary employee 0", 0),
+                    new EmployeeSummary(ids.get(1), "Summary employee 1", 1),
+                    new EmployeeSummary(ids.get(2), "Summary employee 2", 2)), summaries);
+            assertEquals(0, session.getStatistics().getEntityCount());
+            session.getTransaction().rollback();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.hibernatestates.service;
+
+import com.example.hibernatestates.entity.Employee;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static com.example.hibernatestates.TestStatistics.withStatistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class EntityStateInspectorTest {
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenEntityInEveryState_whenInspected_thenStateIsReportedWithoutQueries() {
+        // Store an employee and detach it by closing its session
+        Employee detached = new Employee();
+        detached.setName("Inspected detached employee");
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.persist(detached);
+            session.getTransaction().commit();
+        }
+
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Employee persistent = new Employee();
+            persistent.setName("Inspected persistent employee");
+            session.persist(persistent);
+            Employee removed = new Employee();
+            removed.setName("Inspected removed employee");
+            session.persist(removed);
+            session.remove(removed);
+            Employee reference = session.getReference(Employee.class, detached.getId());
+            Employee transientEmployee = new Employee();
+            transientEmployee.setName("Inspected transient employee");
+
+            withStatistics(sessionFactory, statistics -> {
+                // Call the method for an instance in each state, and for an uninitialized proxy
+                assertEquals(EntityState.TRANSIENT, EntityStateInspector.stateOf(transientEmployee, session));
+                assertEquals(EntityState.PERSISTENT, EntityStateInspector.stateOf(persistent, session));
+                assertEquals(EntityState.DETACHED, EntityStateInspector.stateOf(detached, session));
+                assertEquals(EntityState.REMOVED, EntityStateInspector.stateOf(removed, session));
+                assertEquals(EntityState.PERSISTENT, EntityStateInspector.stateOf(reference, session));
+
+                // Verify that no statement was needed to tell them apart
+                assertEquals(0, statistics.getPrepareStatementCount());
+            });
+            session.getTransaction().rollback();
+        }
+    }
+}
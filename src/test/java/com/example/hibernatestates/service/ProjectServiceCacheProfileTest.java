@@ -0,0 +1,130 @@
+package com.example.hibernatestates.service;
+
+import com.example.hibernatestates.entity.Project;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.hibernatestates.TestStatistics.withStatistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Uses its own in-memory database so cached rows never describe another context's data
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cachedb")
+@ActiveProfiles("cache")
+class ProjectServiceCacheProfileTest {
+    @Autowired
+    ProjectService projectService;
+
+    @Autowired
+    CacheStatisticsService cacheStatisticsService;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenCachedProject_whenLoadedInNewSession_thenNoStatementIsExecuted() {
+        // Create a project and commit it
+        Project project = new Project();
+        project.setName("cached_project");
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            projectService.persistProject(project, session);
+            session.getTransaction().commit();
+        }
+
+        // Load it once, IDENTITY inserts are not cached so the first read puts it into the second-level cache
+        try (Session session = sessionFactory.openSession()) {
+            projectService.getProjectById(project.getId(), session);
+        }
+
+        withStatistics(sessionFactory, statistics -> {
+            try (Session session = sessionFactory.openSession()) {
+                // Call the method to get the project in a fresh session with an empty persistence context
+                Project cachedProject = projectService.getProjectById(project.getId(), session);
+
+                // Verify that the project was assembled from the cache without going to the database
+                assertEquals("cached_project", cachedProject.getName());
+                assertEquals(0, statistics.getPrepareStatementCount());
+            }
+        });
+
+        // Verify that the hit is visible through the provider counters of the project region
+        CacheRegionStatistics projectRegion = cacheStatisticsService.getRegionStatistics().stream()
+                .filter(region -> region.region().equals("project"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(projectRegion.hitCount() >= 1);
+        assertTrue(projectRegion.size() >= 1);
+    }
+
+    @Test
+    void givenCacheableQuery_whenRepeated_thenResultComesFromQueryCache() {
+        Project project = new Project();
+        project.setName("cached_query_project");
+        project.setCompleted(true);
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            projectService.persistProject(project, session);
+            session.getTransaction().commit();
+        }
+
+        // Run the query once to fill the query cache
+        try (Session session = sessionFactory.openSession()) {
+            projectService.getProjectsByCompleted(true, session);
+        }
+
+        withStatistics(sessionFactory, statistics -> {
+            try (Session session = sessionFactory.openSession()) {
+                // Call the method again, both the id list and the projects are served from the cache
+                assertTrue(projectService.getProjectsByCompleted(true, session).stream()
+                        .anyMatch(cached -> cached.getId() == project.getId()));
+                assertEquals(0, statistics.getPrepareStatementCount());
+            }
+        });
+    }
+
+    @Test
+    void givenCachedAndManagedProjects_whenCompletedInBulk_thenSessionAndCacheSeeTheChange() {
+        // Create open projects, commit them and load them once so they are in the second-level cache
+        List<Integer> ids = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < 3; i++) {
+                Project project = new Project();
+                project.setName("bulk_complete_project_" + i);
+                projectService.persistProject(project, session);
+                ids.add(project.getId());
+            }
+            session.getTransaction().commit();
+        }
+        try (Session session = sessionFactory.openSession()) {
+            ids.forEach(id -> projectService.getProjectById(id, session));
+        }
+
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Project managed = projectService.getProjectById(ids.get(0), session);
+            int versionBefore = managed.getVersion();
+
+            // Call the method to complete every project with a set-based statement
+            assertEquals(3, projectService.completeProjects(ids, session));
+
+            // Verify that the managed instance was refreshed with the new state
+            assertTrue(managed.isCompleted());
+            assertEquals(versionBefore + 1, managed.getVersion());
+            session.getTransaction().commit();
+        }
+
+        // Verify that a new session does not read the stale cached state
+        try (Session session = sessionFactory.openSession()) {
+            assertTrue(ids.stream().allMatch(id -> projectService.getProjectById(id, session).isCompleted()));
+        }
+    }
+}
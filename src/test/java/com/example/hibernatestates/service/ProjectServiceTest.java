@@ -1,15 +1,20 @@
 package com.example.hibernatestates.service;
 
 import com.example.hibernatestates.entity.Project;
+import jakarta.persistence.OptimisticLockException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.hibernatestates.TestStatistics.withStatistics;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -140,4 +145,135 @@ class ProjectServiceTest {
         // Check that no collections are associated with the session
         assertEquals(0, session.getStatistics().getCollectionCount());
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenDetachedProject_whenUpdatedVersioned_thenSingleStatementIsExecuted() {
+        // Create a session and start a transaction, bulk statements require one
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create a project, write it to the database and clear the session
+            Project project = new Project();
+            project.setName("versioned_before");
+            session.persist(project);
+            session.flush();
+            session.clear();
+
+            // Create a Detached copy carrying the identifier and version of the stored row
+            Project detachedProject = new Project();
+            detachedProject.setId(project.getId());
+            detachedProject.setVersion(project.getVersion());
+            detachedProject.setName("versioned_after");
+            detachedProject.setCompleted(true);
+
+            withStatistics(sessionFactory, statistics -> {
+                // Call the method to update the project with a version-checked UPDATE
+                projectService.updateProjectVersioned(detachedProject, session);
+
+                // Verify that only the UPDATE was sent and nothing was loaded into the session
+                assertEquals(1, statistics.getPrepareStatementCount());
+                assertEquals(0, statistics.getEntityLoadCount());
+            });
+
+            // Verify that the row was changed and the Detached copy now carries the new version
+            assertEquals(project.getVersion() + 1, detachedProject.getVersion());
+            assertEquals("versioned_after", session.find(Project.class, project.getId()).getName());
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenStaleOrMissingProject_whenUpdatedVersioned_thenShouldBeReported() {
+        // Create a session and start a transaction
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create a project, write it and update it once so that its version moves on
+            Project project = new Project();
+            project.setName("stale_before");
+            session.persist(project);
+            session.flush();
+            session.clear();
+
+            Project staleProject = new Project();
+            staleProject.setId(project.getId());
+            staleProject.setVersion(project.getVersion());
+            staleProject.setName("stale_after");
+            projectService.updateProjectVersioned(staleProject, session);
+
+            // An update with the old version no longer matches the row
+            staleProject.setVersion(project.getVersion());
+            assertThrows(OptimisticLockException.class, () -> projectService.updateProjectVersioned(staleProject, session));
+
+            // An update for an identifier without a row is reported as not found
+            Project missingProject = new Project();
+            missingProject.setId(-1);
+            RuntimeException exception = assertThrows(RuntimeException.class,
+                    () -> projectService.deleteProjectVersioned(missingProject, session));
+            assertEquals("Project with id -1 not found", exception.getMessage());
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenManagedProject_whenUpdatedOrDeletedVersioned_thenItIsRefusedAndLeftUnchanged() {
+        // Create a session and start a transaction
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create a project, write it and change it while it is still managed
+            Project project = new Project();
+            project.setName("managed_before");
+            session.persist(project);
+            session.flush();
+            int version = project.getVersion();
+            project.setName("managed_after");
+
+            // Call the methods, the dirty project would be flushed first and then fail its own version check
+            assertThrows(IllegalArgumentException.class, () -> projectService.updateProjectVersioned(project, session));
+            assertThrows(IllegalArgumentException.class, () -> projectService.deleteProjectVersioned(project, session));
+
+            // Verify that the instance and its row were left alone, the change is written by the regular flush
+            assertEquals(version, project.getVersion());
+            session.flush();
+            session.clear();
+            Project stored = session.find(Project.class, project.getId());
+            assertEquals("managed_after", stored.getName());
+            assertEquals(version + 1, stored.getVersion());
+            session.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void givenManyProjects_whenIterated_thenPersistenceContextStaysBounded() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            // Create more projects than fit in one fetch and clear the session
+            for (int i = 0; i < 25; i++) {
+                Project project = new Project();
+                project.setName("streamed_project_" + i);
+                session.persist(project);
+            }
+            session.flush();
+            session.clear();
+
+            // Call the method to walk every project, checking the managed entity count on each callback
+            AtomicLong largestContext = new AtomicLong();
+            AtomicLong streamed = new AtomicLong();
+            long count = projectService.forEachProject(project -> {
+                largestContext.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+                if (project.getName().startsWith("streamed_project_")) {
+                    streamed.incrementAndGet();
+                }
+            }, 10, session);
+
+            // Verify that every project was visited, and processed ones were detached along the way
+            assertEquals(25, streamed.get());
+            assertTrue(count >= 25);
+            assertTrue(largestContext.get() <= 10);
+            assertEquals(0, session.getStatistics().getEntityCount());
+            session.getTransaction().rollback();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.hibernatestates.service;
+
+import com.example.hibernatestates.async.AsyncProjectService;
+import com.example.hibernatestates.entity.Project;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Uses its own in-memory database because the buffer commits the projects it writes
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehinddb",
+        "project.write-behind.enabled=true",
+        "project.write-behind.flush-interval=1h",
+        "project.write-behind.batch-size=5",
+        "project.write-behind.max-pending=10"})
+class ProjectServiceWriteBehindTest {
+    @Autowired
+    ProjectService projectService;
+
+    @Autowired
+    AsyncProjectService asyncProjectService;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenRepeatedUpdatesToSameProjects_whenFlushed_thenOnlyLatestStateIsWrittenOnce() throws Exception {
+        List<Project> projects = createProjects(3);
+        List<Integer> versionsBefore = projects.stream().map(Project::getVersion).toList();
+
+        // Submit many updates to the same few projects, fewer than the batch size so nothing is written yet
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Project project = projects.get(i % projects.size());
+            project.setName("Coalesced name " + i);
+            project.setCompleted(i % 2 == 0);
+            futures.add(projectService.updateProject(project));
+        }
+        assertEquals(3, projectService.getWriteBehind().getPendingCount());
+        assertTrue(futures.stream().noneMatch(CompletableFuture::isDone));
+
+        // Call the method to write the buffered state
+        assertEquals(3, projectService.flushProjectUpdates());
+
+        // Verify that every submitter learns its update was written
+        assertTrue(futures.stream().allMatch(future -> future.isDone() && !future.isCompletedExceptionally()));
+
+        // Verify that each project holds its latest state and was updated by a single statement
+        try (Session session = sessionFactory.openSession()) {
+            for (int i = 0; i < projects.size(); i++) {
+                int lastUpdate = 99 - (99 - i) % projects.size();
+                Project stored = session.get(Project.class, projects.get(i).getId());
+                assertEquals("Coalesced name " + lastUpdate, stored.getName());
+                assertEquals(lastUpdate % 2 == 0, stored.isCompleted());
+                assertEquals(versionsBefore.get(i) + 1, stored.getVersion());
+                assertEquals(stored.getVersion(), projects.get(i).getVersion());
+            }
+        }
+    }
+
+    @Test
+    void givenHotProject_whenSubmittedAgainAfterFlushWithoutReload_thenItIsWrittenWithoutConflict() throws Exception {
+        Project project = createProjects(1).get(0);
+        int versionBefore = project.getVersion();
+
+        // Submit the same instance through the async facade, flush, then change and submit it again
+        project.setName("First hot name");
+        CompletableFuture<Void> first = asyncProjectService.updateProject(project);
+        projectService.flushProjectUpdates();
+        first.get(5, TimeUnit.SECONDS);
+        project.setName("Second hot name");
+        CompletableFuture<Void> second = asyncProjectService.updateProject(project);
+        projectService.flushProjectUpdates();
+        second.get(5, TimeUnit.SECONDS);
+
+        // Verify that the buffer moved the instance on to each written version, so no reload was needed
+        try (Session session = sessionFactory.openSession()) {
+            Project stored = session.get(Project.class, project.getId());
+            assertEquals("Second hot name", stored.getName());
+            assertEquals(versionBefore + 2, stored.getVersion());
+        }
+    }
+
+    @Test
+    void givenMoreProjectsThanMaxPending_whenSubmitted_thenBufferStaysBoundedAndEverythingIsWritten() throws Exception {
+        List<Project> projects = createProjects(25);
+
+        // Submit more distinct projects than the buffer may hold, full batches are written in the background
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Project project : projects) {
+            project.setCompleted(true);
+            futures.add(projectService.updateProject(project));
+            assertTrue(projectService.getWriteBehind().getPendingCount() <= 10);
+        }
+        projectService.flushProjectUpdates();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Verify that no update was lost
+        try (Session session = sessionFactory.openSession()) {
+            assertTrue(projects.stream().allMatch(project -> session.get(Project.class, project.getId()).isCompleted()));
+        }
+    }
+
+    @Test
+    void givenBufferedUpdates_whenClosed_thenTheyAreWrittenAndNewUpdatesRejected() throws Exception {
+        List<Project> projects = createProjects(1);
+        ProjectUpdateBuffer buffer = new ProjectUpdateBuffer(sessionFactory, Duration.ofHours(1), 5, 10);
+
+        // Submit an update and close the buffer as on application shutdown
+        Project project = projects.get(0);
+        project.setName("Written on close");
+        CompletableFuture<Void> written = buffer.submit(project);
+        buffer.close();
+
+        // Verify that the pending update was written and the buffer no longer accepts updates
+        written.get(5, TimeUnit.SECONDS);
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("Written on close", session.get(Project.class, project.getId()).getName());
+        }
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> buffer.submit(project).get());
+        assertInstanceOf(IllegalStateException.class, rejected.getCause());
+    }
+
+    @Test
+    void givenProjectChangedSinceItWasSubmitted_whenFlushed_thenSubmitterGetsOptimisticLockFailure() throws Exception {
+        Project project = createProjects(1).get(0);
+
+        // Submit an update, then change the project directly before the buffer writes it
+        project.setName("Stale buffered name");
+        CompletableFuture<Void> stale = projectService.updateProject(project);
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.get(Project.class, project.getId()).setName("Concurrent name");
+            session.getTransaction().commit();
+        }
+
+        // Verify that the concurrent change is kept and the submitter is told about the conflict
+        assertEquals(0, projectService.flushProjectUpdates());
+        ExecutionException conflict = assertThrows(ExecutionException.class, () -> stale.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OptimisticLockException.class, conflict.getCause());
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("Concurrent name", session.get(Project.class, project.getId()).getName());
+        }
+    }
+
+    @Test
+    void givenUpdateThatKeepsFailing_whenFlushed_thenOthersAreWrittenAndItFails() throws Exception {
+        List<Project> projects = createProjects(3);
+
+        // Submit two valid updates and one whose name does not fit into the column
+        projects.get(0).setName("x".repeat(1000));
+        projects.get(1).setName("Written despite failure 1");
+        projects.get(2).setName("Written despite failure 2");
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Project project : projects) {
+            futures.add(projectService.updateProject(project));
+        }
+
+        // Verify that the valid updates are written by the first flush and the failing one is retried
+        assertEquals(2, projectService.flushProjectUpdates());
+        assertEquals(1, projectService.getWriteBehind().getPendingCount());
+        futures.get(1).get(5, TimeUnit.SECONDS);
+        futures.get(2).get(5, TimeUnit.SECONDS);
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("Written despite failure 1", session.get(Project.class, projects.get(1).getId()).getName());
+            assertEquals("Written despite failure 2", session.get(Project.class, projects.get(2).getId()).getName());
+        }
+
+        // Verify that its submitter gets the failure once it has failed the maximum number of attempts
+        for (int attempt = 1; attempt < ProjectUpdateBuffer.MAX_ATTEMPTS; attempt++) {
+            assertFalse(futures.get(0).isDone());
+            assertEquals(0, projectService.flushProjectUpdates());
+        }
+        assertEquals(0, projectService.getWriteBehind().getPendingCount());
+        assertTrue(futures.get(0).isCompletedExceptionally());
+    }
+
+    private List<Project> createProjects(int count) {
+        List<Project> projects = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < count; i++) {
+                Project project = new Project();
+                project.setName("Buffered project " + i);
+                session.persist(project);
+                projects.add(project);
+            }
+            session.getTransaction().commit();
+        }
+        return projects;
+    }
+}
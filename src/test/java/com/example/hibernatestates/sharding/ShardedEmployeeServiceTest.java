@@ -0,0 +1,159 @@
+package com.example.hibernatestates.sharding;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.example.hibernatestates.service.EmployeeFetchPlan;
+import com.example.hibernatestates.service.EmployeeSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "sharding.shard-count=3",
+        "sharding.url-template=jdbc:h2:mem:employee_shard{index}",
+        "sharding.range-size=1000"})
+class ShardedEmployeeServiceTest {
+    @Autowired
+    ShardedEmployeeService shardedEmployeeService;
+
+    @Autowired
+    ShardedContactService shardedContactService;
+
+    @Autowired
+    ShardedSessionFactories shards;
+
+    @Test
+    void givenEmployeesWithContacts_whenPersisted_thenEachEmployeeAndItsContactsShareAShard() {
+        // Persist employees with two contacts each, they are spread over the shards
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Employee employee = new Employee();
+            employee.setName("Sharded employee " + i);
+            for (int j = 0; j < 2; j++) {
+                Contact contact = new Contact();
+                contact.setPhoneNumber("sharded_phone_" + i + "_" + j);
+                employee.getContacts().add(contact);
+                contact.setEmployee(employee);
+            }
+            employees.add(shardedEmployeeService.persistEmployee(employee));
+        }
+
+        // Verify that every shard received employees and that the ids fall into the shard ranges
+        Set<Integer> usedShards = employees.stream().map(employee -> shards.shardOf(employee.getId()))
+                .collect(Collectors.toSet());
+        assertEquals(3, usedShards.size());
+
+        // Verify that the contacts are stored on the shard of their employee
+        for (Employee employee : employees) {
+            Long contacts = shards.inEmployeeShard(employee.getId(), session -> session.createQuery(
+                            "select count(c) from Contact c where c.employee.id = :id", Long.class)
+                    .setParameter("id", employee.getId())
+                    .getSingleResult());
+            assertEquals(2L, contacts);
+        }
+
+        // Add a contact to an existing employee, it is routed to the same shard
+        Contact added = new Contact();
+        added.setPhoneNumber("sharded_phone_added");
+        added.setEmployee(employees.get(4));
+        shardedContactService.persistContact(added);
+        assertEquals(employees.get(4).getId(),
+                shardedContactService.findByPhoneNumber("sharded_phone_added").orElseThrow().getEmployee().getId());
+
+        // Verify the routed lookup and the scatter-gather reads
+        assertEquals("Sharded employee 2",
+                shardedEmployeeService.getEmployeeById(employees.get(2).getId(), EmployeeFetchPlan.EMPLOYEE_ONLY).getName());
+        List<Integer> allIds = shardedEmployeeService.getEmployees(EmployeeFetchPlan.EMPLOYEE_ONLY).stream()
+                .map(Employee::getId)
+                .toList();
+        assertTrue(allIds.containsAll(employees.stream().map(Employee::getId).toList()));
+        assertEquals(allIds.stream().sorted().toList(), allIds);
+        EmployeeSummary summary = shardedEmployeeService.getEmployeeSummaries().stream()
+                .filter(candidate -> candidate.id() == employees.get(4).getId())
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3, summary.contactCount());
+    }
+
+    @Test
+    void givenEmployeesOnSeveralShards_whenDeletedInBulk_thenEveryShardIsCleared() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Employee employee = new Employee();
+            employee.setName("Sharded delete " + i);
+            ids.add(shardedEmployeeService.persistEmployee(employee).getId());
+        }
+
+        // Call the method to delete employees that live on different shards
+        assertEquals(3, shardedEmployeeService.deleteEmployeesWithContacts(ids));
+
+        // Verify that they are gone and that ids outside every range are rejected
+        assertThrows(RuntimeException.class,
+                () -> shardedEmployeeService.getEmployeeById(ids.get(0), EmployeeFetchPlan.EMPLOYEE_ONLY));
+        assertThrows(IllegalArgumentException.class, () -> shards.shardOf(3001));
+    }
+
+    @Test
+    void givenFullShard_whenEmployeePersisted_thenInsertFailsInsteadOfUsingNextRange() {
+        try (ShardedSessionFactories smallShards = new ShardedSessionFactories(2,
+                "jdbc:h2:mem:full_shard{index}", "sa", "password", "create-drop", 2, 2)) {
+            // Fill the two ids of the first shard
+            for (int i = 0; i < 2; i++) {
+                smallShards.inShard(0, session -> {
+                    session.persist(newEmployee("Full shard employee"));
+                    return null;
+                });
+            }
+
+            // Verify that a third employee is rejected rather than given an id of the second shard
+            assertThrows(RuntimeException.class, () -> smallShards.inShard(0, session -> {
+                session.persist(newEmployee("Overflowing employee"));
+                return null;
+            }));
+        }
+    }
+
+    @Test
+    void givenKeptSchema_whenShardsRestarted_thenRowsAndIdsAreKept() {
+        // Keep the in-memory databases open between the two starts, like files would be
+        String urlTemplate = "jdbc:h2:mem:kept_shard{index};DB_CLOSE_DELAY=-1";
+        int firstId;
+        try (ShardedSessionFactories keptShards = new ShardedSessionFactories(2, urlTemplate, "sa", "password",
+                "update", 1000, 2)) {
+            firstId = keptShards.inShard(1, session -> {
+                Employee employee = newEmployee("Kept employee");
+                session.persist(employee);
+                return employee.getId();
+            });
+        }
+
+        try (ShardedSessionFactories keptShards = new ShardedSessionFactories(2, urlTemplate, "sa", "password",
+                "update", 1000, 2)) {
+            // Verify that the row survived and that new ids continue after it instead of restarting the range
+            int secondId = keptShards.inShard(1, session -> {
+                assertEquals("Kept employee", session.find(Employee.class, firstId).getName());
+                Employee employee = newEmployee("Second kept employee");
+                session.persist(employee);
+                return employee.getId();
+            });
+            assertEquals(1001, firstId);
+            assertTrue(secondId > firstId);
+        }
+    }
+
+    private static Employee newEmployee(String name) {
+        Employee employee = new Employee();
+        employee.setName(name);
+        return employee;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.hibernatestates.web;
+
+import com.example.hibernatestates.entity.Contact;
+import com.example.hibernatestates.entity.Employee;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.hibernatestates.TestStatistics.withStatistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Uses its own in-memory database so the export contains only the employees created here
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:exportdb")
+@AutoConfigureMockMvc
+class EmployeeControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenEmployeesWithAndWithoutContacts_whenExported_thenEveryEmployeeIsStreamedWithItsContacts()
+            throws Exception {
+        // Create and commit employees with 0, 1 and 2 contacts
+        List<Employee> employees = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < 3; i++) {
+                Employee employee = new Employee();
+                employee.setName("Exported employee " + i);
+                for (int j = 0; j < i; j++) {
+                    Contact contact = new Contact();
+                    contact.setPhoneNumber("exported_phone_" + i + "_" + j);
+                    employee.getContacts().add(contact);
+                    contact.setEmployee(employee);
+                }
+                session.persist(employee);
+                employees.add(employee);
+            }
+            session.getTransaction().commit();
+        }
+
+        withStatistics(sessionFactory, statistics -> {
+            // Call the endpoint, the body is written asynchronously
+            MvcResult result = mockMvc.perform(get("/employees/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Verify that the export request got its own long timeout
+            assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+            String body = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("application/json"))
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode export = objectMapper.readTree(body);
+
+            // Verify that the rows were read by a single query without creating entities
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+
+            // Verify that every employee appears once in id order, holding its own contacts
+            assertEquals(employees.size(), export.size());
+            for (int i = 0; i < employees.size(); i++) {
+                Employee employee = employees.get(i);
+                JsonNode exported = export.get(i);
+                assertEquals(employee.getId(), exported.get("id").asInt());
+                assertEquals(employee.getName(), exported.get("name").asText());
+                assertEquals(employee.getContacts().size(), exported.get("contacts").size());
+                for (int j = 0; j < employee.getContacts().size(); j++) {
+                    assertEquals(employee.getContacts().get(j).getPhoneNumber(),
+                            exported.get("contacts").get(j).get("phoneNumber").asText());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.hibernatestates.web;
+
+import com.example.hibernatestates.entity.Project;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:webdb")
+@AutoConfigureMockMvc
+class ProjectControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    SessionFactory sessionFactory;
+
+    @Test
+    void givenCompletedAndOpenProjects_whenPagedByKeyset_thenEveryCompletedProjectIsReturnedOnce() throws Exception {
+        // Create and commit projects, every third one is completed
+        List<Integer> completedIds = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < 30; i++) {
+                Project project = new Project();
+                project.setName("Paged project " + i);
+                project.setCompleted(i % 3 == 0);
+                session.persist(project);
+                if (project.isCompleted()) {
+                    completedIds.add(project.getId());
+                }
+            }
+            session.getTransaction().commit();
+        }
+
+        // Walk the completed projects page by page, seeking from the last id of the previous page
+        List<Integer> pagedIds = new ArrayList<>();
+        Integer afterId = 0;
+        int pages = 0;
+        while (afterId != null) {
+            JsonNode page = getJson("/projects?completed=true&limit=4&afterId=" + afterId);
+            page.get("items").forEach(item -> {
+                assertTrue(item.get("completed").asBoolean());
+                pagedIds.add(item.get("id").asInt());
+            });
+            afterId = page.get("nextAfterId").isNull() ? null : page.get("nextAfterId").asInt();
+            pages++;
+        }
+
+        // Verify that the pages cover every completed project in id order without gaps or repeats
+        assertEquals(completedIds, pagedIds);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void givenLimitOutOfRange_whenProjectsRequested_thenBadRequestIsReturned() throws Exception {
+        mockMvc.perform(get("/projects?limit=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/employees?limit=" + (PageLimits.MAX_LIMIT + 1))).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode getJson(String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri)).andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}